@@ -2,10 +2,14 @@ package com.vehiclebooking;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableAsync
+@EnableScheduling
 public class VehicleBookingApplication {
     public static void main(String[] args) {
         SpringApplication.run(VehicleBookingApplication.class, args);
     }
-}
\ No newline at end of file
+}
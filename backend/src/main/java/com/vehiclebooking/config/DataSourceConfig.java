@@ -0,0 +1,75 @@
+package com.vehiclebooking.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read/write split, only active when {@code app.datasource.replica.urls} lists at least one
+ * replica; otherwise Spring Boot's single pool is used unchanged.
+ *
+ * <p>The primary pool is configured exactly like the default one ({@code spring.datasource.*}),
+ * replicas copy its settings with their own URL, pool size and a short connection timeout so a
+ * dead replica costs little before reads fail over.
+ */
+@Configuration
+@ConditionalOnExpression("!'${app.datasource.replica.urls:}'.isBlank()")
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            MeterRegistry meterRegistry,
+            @Value("${app.datasource.replica.urls}") List<String> urls,
+            @Value("${app.datasource.replica.username:${spring.datasource.username}}") String username,
+            @Value("${app.datasource.replica.password:${spring.datasource.password}}") String password,
+            @Value("${app.datasource.replica.pool-size:20}") int poolSize,
+            @Value("${app.datasource.replica.connection-timeout-ms:1000}") long connectionTimeoutMillis,
+            @Value("${app.datasource.replica.max-lag-ms:2000}") long maxLagMillis) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : urls) {
+            HikariConfig config = new HikariConfig();
+            primaryDataSource.copyStateTo(config);
+            config.setJdbcUrl(url.trim());
+            config.setUsername(username);
+            config.setPassword(password);
+            config.setPoolName("replica-" + (replicas.size() + 1));
+            config.setMaximumPoolSize(poolSize);
+            config.setMinimumIdle(Math.min(config.getMinimumIdle(), poolSize));
+            config.setConnectionTimeout(connectionTimeoutMillis);
+            config.setReadOnly(true);
+            // a replica that is down at startup must not stop the application
+            config.setInitializationFailTimeout(-1);
+            replicas.add(new HikariDataSource(config));
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, maxLagMillis, meterRegistry);
+    }
+
+    // What JPA, Flyway and JdbcTemplate see: the physical connection is chosen at the first
+    // statement, after @Transactional has marked the transaction read-only or not
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
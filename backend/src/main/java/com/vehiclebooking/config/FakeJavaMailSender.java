@@ -0,0 +1,86 @@
+package com.vehiclebooking.config;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessagePreparator;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-memory JavaMailSender for local runs and tests; enable with {@code app.mail.fake=true}.
+ * Replaces the SMTP sender so nothing leaves the machine, and keeps every message for inspection.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.mail.fake", havingValue = "true")
+public class FakeJavaMailSender implements JavaMailSender {
+
+    private final Session session = Session.getInstance(new Properties());
+    private final List<MimeMessage> sentMimeMessages = new CopyOnWriteArrayList<>();
+    private final List<SimpleMailMessage> sentSimpleMessages = new CopyOnWriteArrayList<>();
+
+    @Override
+    public MimeMessage createMimeMessage() {
+        return new MimeMessage(session);
+    }
+
+    @Override
+    public MimeMessage createMimeMessage(InputStream contentStream) throws MailException {
+        try {
+            return new MimeMessage(session, contentStream);
+        } catch (MessagingException e) {
+            throw new MailParseException(e);
+        }
+    }
+
+    @Override
+    public void send(MimeMessage... mimeMessages) throws MailException {
+        for (MimeMessage message : mimeMessages) {
+            sentMimeMessages.add(message);
+            log.info("Fake mail sender captured message #{}", sentMimeMessages.size());
+        }
+    }
+
+    @Override
+    public void send(MimeMessagePreparator... mimeMessagePreparators) throws MailException {
+        for (MimeMessagePreparator preparator : mimeMessagePreparators) {
+            MimeMessage message = createMimeMessage();
+            try {
+                preparator.prepare(message);
+            } catch (Exception e) {
+                throw new MailPreparationException(e);
+            }
+            send(message);
+        }
+    }
+
+    @Override
+    public void send(SimpleMailMessage... simpleMessages) throws MailException {
+        sentSimpleMessages.addAll(List.of(simpleMessages));
+    }
+
+    public List<MimeMessage> getSentMimeMessages() {
+        return List.copyOf(sentMimeMessages);
+    }
+
+    public List<SimpleMailMessage> getSentSimpleMessages() {
+        return List.copyOf(sentSimpleMessages);
+    }
+
+    public void reset() {
+        sentMimeMessages.clear();
+        sentSimpleMessages.clear();
+    }
+}
@@ -0,0 +1,89 @@
+package com.vehiclebooking.config;
+
+import com.vehiclebooking.storage.ImageStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * One-shot move of Base64 images out of {@code vehicles.picture} into the {@link ImageStore}.
+ * Enable with {@code app.images.migrate-legacy=true}; rows are processed in id order so a
+ * restart simply resumes with whatever is left.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.images.migrate-legacy", havingValue = "true")
+public class ImageMigrationRunner implements ApplicationRunner {
+
+    private static final int BATCH_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ImageStore imageStore;
+
+    private record LegacyRow(long id, String picture) {}
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        long lastId = 0;
+        int migrated = 0;
+        while (true) {
+            List<LegacyRow> rows = jdbcTemplate.query(
+                    "SELECT id, picture FROM vehicles WHERE picture IS NOT NULL AND id > ? ORDER BY id LIMIT ?",
+                    (rs, i) -> new LegacyRow(rs.getLong("id"), rs.getString("picture")),
+                    lastId, BATCH_SIZE);
+            if (rows.isEmpty()) {
+                break;
+            }
+            for (LegacyRow row : rows) {
+                lastId = row.id();
+                byte[] bytes = decode(row.picture());
+                if (bytes == null) {
+                    log.warn("Vehicle {} has a picture that is not Base64, leaving it in place", row.id());
+                    continue;
+                }
+                if (ImageStore.sniffContentType(bytes, bytes.length).equals("application/octet-stream")) {
+                    log.warn("Vehicle {} has a picture that is not a JPEG, PNG, GIF or WebP image, leaving it in place",
+                            row.id());
+                    continue;
+                }
+                try {
+                    String key = imageStore.put(new ByteArrayInputStream(bytes));
+                    jdbcTemplate.update("UPDATE vehicles SET image_key = ?, picture = NULL WHERE id = ?",
+                            key, row.id());
+                    migrated++;
+                } catch (IOException e) {
+                    log.warn("Vehicle {} picture could not be stored, leaving it in place: {}", row.id(), e.getMessage());
+                }
+            }
+        }
+        log.info("Moved {} vehicle images into the image store", migrated);
+    }
+
+    // Strict Base64 (the MIME decoder silently drops anything outside the alphabet, turning a URL
+    // or path into garbage); only line breaks and a data: URL prefix are tolerated
+    private static byte[] decode(String picture) {
+        String payload = picture.strip();
+        if (payload.startsWith("data:")) {
+            int comma = payload.indexOf(',');
+            if (comma < 0 || !payload.substring(0, comma).endsWith(";base64")) {
+                return null;
+            }
+            payload = payload.substring(comma + 1);
+        }
+        try {
+            return Base64.getDecoder().decode(payload.replaceAll("\\s+", ""));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
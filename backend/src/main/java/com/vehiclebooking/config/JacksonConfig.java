@@ -0,0 +1,32 @@
+package com.vehiclebooking.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Jackson tuning for the wire formats. Spring Boot registers Module beans on its ObjectMapper
+ * builder, so JSON and CBOR responses share the same modules, views and settings.
+ */
+@Configuration
+public class JacksonConfig {
+
+    /** Column-oriented list responses (see VehicleColumns/BookingColumns). */
+    public static final String COLUMNS_JSON = "application/vnd.vehiclebooking.columns+json";
+
+    // Blackbird swaps reflective getter calls for generated lambdas (LambdaMetafactory)
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    // Accept: application/cbor gets the same payload in binary form
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
@@ -0,0 +1,44 @@
+package com.vehiclebooking.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Bounded, TTL-based cache of authenticated principals keyed by email (the JWT subject),
+ * so the JWT filter does not have to load the user row on every request.
+ * Anything that changes a user must call {@link #evict(String)}.
+ */
+@Component
+public class PrincipalCache {
+
+    private final Cache<String, UserDetails> entries;
+
+    public PrincipalCache(@Value("${app.security.principal-cache.ttl-seconds:300}") long ttlSeconds,
+                          @Value("${app.security.principal-cache.max-size:10000}") int maxSize) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    public UserDetails get(String email) {
+        return entries.getIfPresent(email);
+    }
+
+    public void put(String email, UserDetails user) {
+        entries.put(email, user);
+    }
+
+    public void evict(String email) {
+        entries.invalidate(email);
+    }
+
+    public void clear() {
+        entries.invalidateAll();
+    }
+}
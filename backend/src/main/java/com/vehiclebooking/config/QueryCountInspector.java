@@ -0,0 +1,32 @@
+package com.vehiclebooking.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts SQL statements prepared on the current thread. Hibernate instantiates this class
+ * itself (see {@code hibernate.session_factory.statement_inspector}), so the state is static;
+ * {@link QueryMetricsFilter} resets and reads it around each request. Statements run on other
+ * threads (async request processing, virtual threads started by a handler) are not counted.
+ */
+public class QueryCountInspector implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    public static void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    public static int current() {
+        return COUNT.get()[0];
+    }
+
+    public static void clear() {
+        COUNT.remove();
+    }
+}
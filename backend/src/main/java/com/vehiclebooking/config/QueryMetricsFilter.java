@@ -0,0 +1,66 @@
+package com.vehiclebooking.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Records how many SQL statements each request issued ({@code http.server.requests.queries},
+ * tagged by route) and logs requests over the N+1 threshold.
+ *
+ * <p>Only statements on the request thread are counted (see {@link QueryCountInspector}). Work
+ * handed to another thread, such as a virtual thread or a {@code StreamingResponseBody}, is not,
+ * so requests that go async are left out rather than recorded with a partial count.
+ */
+@Slf4j
+@Component
+public class QueryMetricsFilter extends OncePerRequestFilter {
+
+    // built once; each method/route pair is registered on first use and looked up after that
+    private final Meter.MeterProvider<DistributionSummary> queriesPerRequest;
+    private final int nPlusOneThreshold;
+
+    public QueryMetricsFilter(MeterRegistry meterRegistry,
+                              @Value("${app.metrics.n-plus-one-threshold:20}") int nPlusOneThreshold) {
+        this.queriesPerRequest = DistributionSummary.builder("http.server.requests.queries")
+                .description("SQL statements issued per request")
+                .publishPercentileHistogram()
+                .withRegistry(meterRegistry);
+        this.nPlusOneThreshold = nPlusOneThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        QueryCountInspector.reset();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int queries = QueryCountInspector.current();
+            QueryCountInspector.clear();
+            if (!request.isAsyncStarted()) {
+                record(request, queries);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, int queries) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        queriesPerRequest.withTags("method", request.getMethod(), "uri", uri).record(queries);
+        if (queries > nPlusOneThreshold) {
+            log.warn("Possible N+1: {} {} issued {} SQL statements", request.getMethod(), uri, queries);
+        }
+    }
+}
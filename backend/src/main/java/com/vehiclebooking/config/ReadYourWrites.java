@@ -0,0 +1,43 @@
+package com.vehiclebooking.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Remembers what changed in the last few seconds so reads of it skip the replicas, which may not
+ * have replayed the change yet. Keys are free-form ("user:..." for a user's bookings,
+ * "catalog:..." for a city listing). The window should exceed the replicas' max lag.
+ *
+ * <p>Per instance: another instance learns of a change only through the notifications it
+ * already receives (catalog versions); elsewhere the max-lag bound on replicas applies.
+ */
+@Component
+public class ReadYourWrites {
+
+    private final Cache<String, Boolean> recent;
+
+    public ReadYourWrites(@Value("${app.datasource.replica.read-your-writes-seconds:5}") long windowSeconds) {
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(Duration.ofSeconds(windowSeconds))
+                .build();
+    }
+
+    public void record(String key) {
+        recent.put(key, Boolean.TRUE);
+    }
+
+    public boolean isRecent(String key) {
+        return recent.getIfPresent(key) != null;
+    }
+
+    /** Runs {@code query} on the primary if {@code key} changed recently, else wherever it routes. */
+    public <T> T read(String key, Supplier<T> query) {
+        return isRecent(key) ? ReplicaRoutingDataSource.onPrimary(query) : query.get();
+    }
+}
@@ -0,0 +1,187 @@
+package com.vehiclebooking.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Sends connections for read-only transactions to a healthy, caught-up read replica and
+ * everything else to the primary. Must sit behind a LazyConnectionDataSourceProxy so the
+ * connection is only fetched once the transaction's read-only flag is known.
+ *
+ * <p>Every {@code check-interval} each replica is asked how far it trails the primary: a replica
+ * that has replayed the primary's current WAL position is at lag 0, otherwise its lag is the age
+ * of the last replayed transaction. A replica that is unreachable or lags by more than
+ * {@code max-lag} is skipped until a later check passes; a replica that fails to hand out a
+ * connection is taken out at once. With no usable replica, reads fall back to the primary.
+ *
+ * <p>{@link #onPrimary(Supplier)} forces the primary for read-your-writes paths.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements DisposableBean {
+
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas;
+    private final long maxLagMillis;
+    private final JdbcTemplate primaryTemplate;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas,
+                                    long maxLagMillis, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.maxLagMillis = maxLagMillis;
+        this.primaryTemplate = healthTemplate(primary);
+        for (Replica replica : this.replicas) {
+            Gauge.builder("datasource.replica.lag", replica, r -> r.lagMillis)
+                    .baseUnit("milliseconds")
+                    .tag("replica", replica.name)
+                    .register(meterRegistry);
+            Gauge.builder("datasource.replica.usable", replica, r -> r.usable ? 1 : 0)
+                    .tag("replica", replica.name)
+                    .register(meterRegistry);
+        }
+    }
+
+    /** Runs {@code work} with every connection it opens on the primary, read-only or not. */
+    public static <T> T onPrimary(Supplier<T> work) {
+        Boolean previous = FORCE_PRIMARY.get();
+        FORCE_PRIMARY.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                FORCE_PRIMARY.remove();
+            } else {
+                FORCE_PRIMARY.set(previous);
+            }
+        }
+    }
+
+    // ------------------- ROUTING ------------------------
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Replica replica = pickReplica();
+        if (replica != null) {
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                // fail over now rather than at the next health check
+                replica.markDown(e);
+            }
+        }
+        return primary.getConnection();
+    }
+
+    // Every pool logs in with its own configured credentials (Hikari itself refuses per-call ones);
+    // the JDBC contract for an unsupported method is a SQLException, not a RuntimeException
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Credentials are configured per pool");
+    }
+
+    private Replica pickReplica() {
+        if (replicas.isEmpty()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || FORCE_PRIMARY.get() != null) {
+            return null;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica candidate = replicas.get((start + i) % replicas.size());
+            if (candidate.usable) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    // ------------------- HEALTH ------------------------
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.check-interval-ms:2000}")
+    public void checkReplicas() {
+        String primaryLsn;
+        try {
+            primaryLsn = primaryTemplate.queryForObject("SELECT pg_current_wal_lsn()::text", String.class);
+        } catch (RuntimeException e) {
+            // without the primary's position lag can't be judged; keep the last verdicts
+            log.warn("Could not read the primary WAL position: {}", e.getMessage());
+            return;
+        }
+        for (Replica replica : replicas) {
+            replica.check(primaryLsn);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        replicas.forEach(r -> r.dataSource.close());
+        primary.close();
+    }
+
+    private static JdbcTemplate healthTemplate(DataSource dataSource) {
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.setQueryTimeout(2);
+        return template;
+    }
+
+    private final class Replica {
+
+        final String name;
+        final HikariDataSource dataSource;
+        final JdbcTemplate template;
+        // unproven until the first check passes
+        volatile boolean usable;
+        volatile long lagMillis = -1;
+
+        Replica(HikariDataSource dataSource) {
+            this.name = dataSource.getPoolName();
+            this.dataSource = dataSource;
+            this.template = healthTemplate(dataSource);
+        }
+
+        // A replica that is not in recovery is a stand-alone stand-in (local runs) and never lags
+        void check(String primaryLsn) {
+            try {
+                long lag = template.queryForObject("""
+                        SELECT CASE
+                                   WHEN NOT pg_is_in_recovery() OR pg_last_wal_replay_lsn() >= ?::pg_lsn THEN 0
+                                   ELSE COALESCE(EXTRACT(EPOCH FROM clock_timestamp() - pg_last_xact_replay_timestamp()) * 1000, -1)
+                               END::bigint""", Long.class, primaryLsn);
+                boolean wasUsable = usable;
+                lagMillis = lag;
+                usable = lag >= 0 && lag <= maxLagMillis;
+                if (usable != wasUsable) {
+                    log.info("Replica {} is {} (lag {} ms)", name, usable ? "back in rotation" : "lagging, skipped", lag);
+                }
+            } catch (RuntimeException e) {
+                markDown(e);
+            }
+        }
+
+        void markDown(Exception e) {
+            if (usable) {
+                log.warn("Replica {} is down, reads fall back: {}", name, e.getMessage());
+            }
+            usable = false;
+            lagMillis = -1;
+        }
+    }
+}
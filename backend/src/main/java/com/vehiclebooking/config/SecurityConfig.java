@@ -1,11 +1,15 @@
 package com.vehiclebooking.config;
 
 import com.vehiclebooking.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -15,46 +19,74 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Map;
 
 @Configuration
 @RequiredArgsConstructor
 public class SecurityConfig {
     private final JwtUtil jwtUtil;
     private final UserDetailsService userDetailsService;
+    private final PrincipalCache principalCache;
+    private final MeterRegistry meterRegistry;
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http,
+                                           @Value("${management.server.port:-1}") int managementPort) throws Exception {
+        // Metrics (latencies, pools, outbox, login failures) are only readable on the internal
+        // management port, which must not be exposed publicly
+        RequestMatcher internalActuator = request -> managementPort > 0
+                && request.getLocalPort() == managementPort
+                && request.getRequestURI().startsWith("/actuator/");
         http.csrf().disable()
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/vehicles/**").permitAll() // ✅ Public access to vehicles endpoint
+                        .requestMatchers("/api/quotes/**").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers(internalActuator).permitAll()
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(sess -> sess.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
-                .addFilterBefore(new JwtAuthFilter(jwtUtil, userDetailsService), UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(new JwtAuthFilter(jwtUtil, userDetailsService, principalCache, meterRegistry), UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
 
+    // New hashes are "{bcrypt}" at the tuned cost; legacy unprefixed BCrypt hashes still verify
+    // and AuthService re-hashes them on the next successful login.
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${app.security.password.bcrypt-strength:10}") int strength) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
     }
 
     static class JwtAuthFilter extends OncePerRequestFilter {
         private final JwtUtil jwtUtil;
         private final UserDetailsService userDetailsService;
+        private final PrincipalCache principalCache;
+        private final Timer authTimer;
 
-        public JwtAuthFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService) {
+        public JwtAuthFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService, PrincipalCache principalCache,
+                             MeterRegistry meterRegistry) {
             this.jwtUtil = jwtUtil;
             this.userDetailsService = userDetailsService;
+            this.principalCache = principalCache;
+            this.authTimer = Timer.builder("security.jwt.filter")
+                    .description("Time spent authenticating a bearer token")
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
         }
 
         @Override
@@ -62,17 +94,35 @@ public class SecurityConfig {
                                         FilterChain filterChain) throws ServletException, IOException {
             final String authHeader = request.getHeader("Authorization");
             if (authHeader != null && authHeader.startsWith("Bearer ")) {
-                String jwt = authHeader.substring(7);
-                if (jwtUtil.validateToken(jwt)) {
-                    String email = jwtUtil.extractEmail(jwt);
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(email);
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails, null, userDetails.getAuthorities()
-                    );
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                Timer.Sample sample = Timer.start();
+                try {
+                    authenticate(authHeader.substring(7));
+                } finally {
+                    sample.stop(authTimer);
                 }
             }
             filterChain.doFilter(request, response);
         }
+
+        private void authenticate(String jwt) {
+            Claims claims = jwtUtil.parseClaims(jwt);
+            if (claims == null || claims.getSubject() == null) {
+                return;
+            }
+            String email = claims.getSubject();
+            UserDetails userDetails = principalCache.get(email);
+            if (userDetails == null) {
+                try {
+                    userDetails = userDetailsService.loadUserByUsername(email);
+                } catch (UsernameNotFoundException e) {
+                    return;
+                }
+                principalCache.put(email, userDetails);
+            }
+            UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                    userDetails, null, userDetails.getAuthorities()
+            );
+            SecurityContextHolder.getContext().setAuthentication(authToken);
+        }
     }
 }
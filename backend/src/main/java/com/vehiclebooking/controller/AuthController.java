@@ -4,11 +4,14 @@ import com.vehiclebooking.dto.AuthRequest;
 import com.vehiclebooking.dto.AuthResponse;
 import com.vehiclebooking.dto.RegisterRequest;
 import com.vehiclebooking.service.AuthService;
+import io.micrometer.core.annotation.Timed;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
+@Timed(value = "api.auth", histogram = true)
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
 @CrossOrigin(origins = "*", allowedHeaders = "*")
@@ -28,13 +31,13 @@ public class AuthController {
 
     // ✅ User login
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> loginUser(@RequestBody AuthRequest request) {
-        return ResponseEntity.ok(authService.loginUser(request));
+    public ResponseEntity<AuthResponse> loginUser(@RequestBody AuthRequest request, HttpServletRequest http) {
+        return ResponseEntity.ok(authService.loginUser(request, http.getRemoteAddr()));
     }
 
     // ✅ Owner login
     @PostMapping("/login-owner")
-    public ResponseEntity<AuthResponse> loginOwner(@RequestBody AuthRequest request) {
-        return ResponseEntity.ok(authService.loginOwner(request));
+    public ResponseEntity<AuthResponse> loginOwner(@RequestBody AuthRequest request, HttpServletRequest http) {
+        return ResponseEntity.ok(authService.loginOwner(request, http.getRemoteAddr()));
     }
 }
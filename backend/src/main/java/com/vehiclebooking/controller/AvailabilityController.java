@@ -0,0 +1,26 @@
+package com.vehiclebooking.controller;
+
+import com.vehiclebooking.service.AvailabilityBroadcaster;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+// Long-lived SSE connections are kept out of the @Timed request histograms on purpose
+@RestController
+@RequestMapping("/api/vehicles/availability")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class AvailabilityController {
+
+    private final AvailabilityBroadcaster availabilityBroadcaster;
+
+    // Pushes "delta" events for the city (all cities if omitted); "resync" means refetch the listing (after an import the stream stays open)
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribe(@RequestParam(required = false) String city) {
+        return ResponseEntity.ok()
+                .header("X-Accel-Buffering", "no")
+                .body(availabilityBroadcaster.subscribe(city));
+    }
+}
@@ -1,20 +1,38 @@
 package com.vehiclebooking.controller;
 
+import com.fasterxml.jackson.annotation.JsonView;
+import com.vehiclebooking.config.JacksonConfig;
+import com.vehiclebooking.dto.BookingColumns;
+import com.vehiclebooking.dto.BookingFilter;
+import com.vehiclebooking.dto.Views;
 import com.vehiclebooking.model.Booking;
+import com.vehiclebooking.model.Payment;
+import com.vehiclebooking.service.BookingHistoryService;
 import com.vehiclebooking.service.BookingService;
+import com.vehiclebooking.service.PaymentService;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Locale;
 
 @RestController
+@Timed(value = "api.bookings", histogram = true)
 @RequestMapping("/api/bookings")
 @RequiredArgsConstructor
 @CrossOrigin(origins = "*", allowedHeaders = "*")
 public class BookingController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final BookingService bookingService;
+    private final BookingHistoryService bookingHistoryService;
+    private final PaymentService paymentService;
 
     @PostMapping
     public ResponseEntity<Booking> bookVehicle(@RequestBody Booking booking) {
@@ -22,18 +40,68 @@ public class BookingController {
     }
 
     @GetMapping("/user/{email}")
+    @JsonView(Views.Public.class)
     public ResponseEntity<List<Booking>> getUserBookings(@PathVariable String email) {
         return ResponseEntity.ok(bookingService.getBookingsByUser(email));
     }
 
+    @GetMapping(value = "/user/{email}", produces = JacksonConfig.COLUMNS_JSON)
+    public ResponseEntity<BookingColumns> getUserBookingsColumns(@PathVariable String email) {
+        return ResponseEntity.ok(BookingColumns.of(bookingService.getBookingsByUser(email)));
+    }
+
     @GetMapping
+    @JsonView(Views.Internal.class)
     public ResponseEntity<List<Booking>> getAllBookings() {
         return ResponseEntity.ok(bookingService.getAllBookings());
     }
 
+    // Streaming variants for large histories: filters are optional, format is ndjson or json
+    @GetMapping("/user/{email}/stream")
+    public ResponseEntity<StreamingResponseBody> streamUserBookings(@PathVariable String email,
+                                                                    @ModelAttribute BookingFilter filter,
+                                                                    @RequestParam(defaultValue = "ndjson") String format) {
+        return stream(email, filter, format);
+    }
+
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamAllBookings(@ModelAttribute BookingFilter filter,
+                                                                   @RequestParam(defaultValue = "ndjson") String format) {
+        return stream(null, filter, format);
+    }
+
+    // Settlement is asynchronous: 202 until the payment is SETTLED or FAILED; poll GET /{id}/payment.
+    // Retrying with the same Idempotency-Key returns the same payment instead of charging again.
     @PostMapping("/{id}/pay")
-    public ResponseEntity<Booking> payBooking(@PathVariable Long id) {
-        return ResponseEntity.ok(bookingService.payForBooking(id));
+    @JsonView(Views.Public.class)
+    public ResponseEntity<Payment> payBooking(@PathVariable Long id,
+                                              @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank() || idempotencyKey.length() > 255) {
+            return ResponseEntity.badRequest().build();
+        }
+        Payment payment = paymentService.requestPayment(id, idempotencyKey);
+        boolean finished = payment.getStatus() == Payment.Status.SETTLED || payment.getStatus() == Payment.Status.FAILED;
+        return ResponseEntity.status(finished ? HttpStatus.OK : HttpStatus.ACCEPTED).body(payment);
     }
 
+    @GetMapping("/{id}/payment")
+    @JsonView(Views.Public.class)
+    public ResponseEntity<Payment> getPayment(@PathVariable Long id) {
+        return ResponseEntity.of(paymentService.getLatestPayment(id));
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(String email, BookingFilter filter, String format) {
+        BookingHistoryService.Format parsed = switch (format.toLowerCase(Locale.ROOT)) {
+            case "ndjson", "jsonl" -> BookingHistoryService.Format.NDJSON;
+            case "json" -> BookingHistoryService.Format.JSON;
+            default -> null;
+        };
+        if (parsed == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody body = out -> bookingHistoryService.streamBookings(out, parsed, email, filter);
+        return ResponseEntity.ok()
+                .contentType(parsed == BookingHistoryService.Format.NDJSON ? NDJSON : MediaType.APPLICATION_JSON)
+                .body(body);
+    }
 }
@@ -0,0 +1,80 @@
+package com.vehiclebooking.controller;
+
+import com.vehiclebooking.dto.ImportReport;
+import com.vehiclebooking.dto.OwnerStats;
+import com.vehiclebooking.service.OwnerStatsService;
+import com.vehiclebooking.service.VehicleBulkService;
+import io.micrometer.core.annotation.Timed;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.util.Locale;
+
+@RestController
+@Timed(value = "api.owners", histogram = true)
+@RequestMapping("/api/owners")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*", allowedHeaders = "*")
+public class OwnerController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final OwnerStatsService ownerStatsService;
+    private final VehicleBulkService vehicleBulkService;
+
+    // Dashboard figures for the authenticated owner's fleet
+    @GetMapping("/me/stats")
+    public ResponseEntity<OwnerStats> getMyStats(@AuthenticationPrincipal UserDetails owner,
+                                                 @RequestParam(defaultValue = "30") int days) {
+        return ResponseEntity.ok(ownerStatsService.getStats(owner.getUsername(), days));
+    }
+
+    // Streams a CSV (with header row) or NDJSON body; bad rows are reported, not fatal
+    @PostMapping("/me/vehicles/import")
+    public ResponseEntity<ImportReport> importVehicles(@AuthenticationPrincipal UserDetails owner,
+                                                       @RequestParam(defaultValue = "csv") String format,
+                                                       HttpServletRequest request) throws IOException {
+        VehicleBulkService.Format parsed = parseFormat(format);
+        if (parsed == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(vehicleBulkService.importVehicles(
+                    request.getInputStream(), parsed, owner.getUsername()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/me/vehicles/export")
+    public ResponseEntity<StreamingResponseBody> exportVehicles(@AuthenticationPrincipal UserDetails owner,
+                                                                @RequestParam(defaultValue = "csv") String format) {
+        VehicleBulkService.Format parsed = parseFormat(format);
+        if (parsed == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        String ownerEmail = owner.getUsername();
+        StreamingResponseBody body = out -> vehicleBulkService.exportVehicles(out, parsed, ownerEmail);
+        return ResponseEntity.ok()
+                .contentType(parsed == VehicleBulkService.Format.CSV ? new MediaType("text", "csv") : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"vehicles." + parsed.name().toLowerCase(Locale.ROOT) + "\"")
+                .body(body);
+    }
+
+    private static VehicleBulkService.Format parseFormat(String format) {
+        return switch (format.toLowerCase(Locale.ROOT)) {
+            case "csv" -> VehicleBulkService.Format.CSV;
+            case "ndjson", "jsonl" -> VehicleBulkService.Format.NDJSON;
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,37 @@
+package com.vehiclebooking.controller;
+
+import com.vehiclebooking.dto.FareQuote;
+import com.vehiclebooking.dto.QuoteRequest;
+import com.vehiclebooking.service.FareQuoteService;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@Timed(value = "api.quotes", histogram = true)
+@RequestMapping("/api/quotes")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*", allowedHeaders = "*")
+public class QuoteController {
+
+    private static final int MAX_VEHICLES_PER_QUOTE = 500;
+
+    private final FareQuoteService fareQuoteService;
+
+    @PostMapping
+    public ResponseEntity<List<FareQuote>> quote(@RequestBody QuoteRequest request) {
+        if (request.getVehicleIds() == null || request.getVehicleIds().isEmpty()
+                || request.getVehicleIds().size() > MAX_VEHICLES_PER_QUOTE) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (request.getStartTime() != null && request.getEndTime() != null
+                && !request.getStartTime().isBefore(request.getEndTime())) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(fareQuoteService.quoteAll(request.getPickupLocation(), request.getDropLocation(),
+                request.getVehicleIds(), request.getStartTime(), request.getEndTime()));
+    }
+}
@@ -1,24 +1,59 @@
 package com.vehiclebooking.controller;
 
+import com.fasterxml.jackson.annotation.JsonView;
+import com.vehiclebooking.config.JacksonConfig;
+import com.vehiclebooking.dto.NearbyVehicle;
+import com.vehiclebooking.dto.VehicleColumns;
+import com.vehiclebooking.dto.VehiclePage;
+import com.vehiclebooking.dto.VehicleSummary;
+import com.vehiclebooking.dto.VehicleTypes;
+import com.vehiclebooking.dto.Views;
 import com.vehiclebooking.model.Vehicle;
+import com.vehiclebooking.service.CatalogVersions;
+import com.vehiclebooking.service.VehicleSearchService;
 import com.vehiclebooking.service.VehicleService;
+import com.vehiclebooking.storage.ImageStore;
+import com.vehiclebooking.storage.StoredImage;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.util.Base64;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
+@Timed(value = "api.vehicles", histogram = true)
 @RequestMapping("/api/vehicles")
 @RequiredArgsConstructor
 @CrossOrigin(origins = "*")
 public class VehicleController {
 
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    private static final double MAX_NEARBY_RADIUS_KM = 200;
+
     private final VehicleService vehicleService;
+    private final VehicleSearchService vehicleSearchService;
+    private final ImageStore imageStore;
+    private final CatalogVersions catalogVersions;
 
     // ✅ Accept multipart/form-data using @RequestPart
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
@@ -30,6 +65,8 @@ public class VehicleController {
             @RequestPart("ratePerKm") double ratePerKm,
             @RequestPart("available") boolean available,
             @RequestPart("ownerEmail") String ownerEmail,
+            @RequestPart(value = "latitude", required = false) Double latitude,
+            @RequestPart(value = "longitude", required = false) Double longitude,
             @RequestPart(value = "image", required = false) MultipartFile image
     ) {
         try {
@@ -41,10 +78,16 @@ public class VehicleController {
             vehicle.setRatePerKm(ratePerKm);
             vehicle.setAvailable(available);
             vehicle.setOwnerEmail(ownerEmail);
+            if (!validCoordinates(latitude, longitude)) {
+                return ResponseEntity.badRequest().build();
+            }
+            vehicle.setLatitude(latitude);
+            vehicle.setLongitude(longitude);
 
             if (image != null && !image.isEmpty()) {
-                String base64Image = Base64.getEncoder().encodeToString(image.getBytes());
-                vehicle.setPicture(base64Image);
+                try (InputStream in = image.getInputStream()) {
+                    vehicle.setImageKey(imageStore.put(in));
+                }
             }
 
             Vehicle savedVehicle = vehicleService.addVehicle(vehicle);
@@ -54,13 +97,185 @@ public class VehicleController {
         }
     }
 
+    // Listings carry a strong ETag from the catalog version; a matching If-None-Match is answered
+    // with 304 before any query runs. The version is read first, so a change that lands during
+    // the query only makes the tag older than the body, never newer.
     @GetMapping
-    public ResponseEntity<List<Vehicle>> getAllVehicles() {
-        return ResponseEntity.ok(vehicleService.getAllVehicles());
+    @JsonView(Views.Public.class)
+    public ResponseEntity<List<Vehicle>> getAllVehicles(WebRequest request) {
+        String etag = catalogEtag(catalogVersions.version(), request);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return catalogResponse(etag).body(vehicleService.getAllVehicles());
+    }
+
+    @GetMapping(produces = JacksonConfig.COLUMNS_JSON)
+    public ResponseEntity<VehicleColumns> getAllVehiclesColumns(WebRequest request) {
+        String etag = catalogEtag(catalogVersions.version(), request);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return catalogResponse(etag).body(VehicleColumns.of(vehicleService.getAllVehicles()));
+    }
+
+    // Keyset-paginated listing: ?sort=id|rate&size=20&cursor=<nextCursor from previous page>
+    @GetMapping("/page")
+    public ResponseEntity<VehiclePage> getVehiclePage(
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + VehicleService.DEFAULT_PAGE_SIZE) int size
+    ) {
+        if (size < 1 || size > VehicleService.MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(vehicleService.getVehiclePage(sort, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Served from the in-memory index: ?city=&bus=&van=&car=&luxury=&minCapacity=&maxRate=&sort=price
+    @GetMapping("/search")
+    public ResponseEntity<List<VehicleSummary>> searchVehicles(
+            @RequestParam(required = false) String city,
+            @ModelAttribute VehicleTypes types,
+            @RequestParam(defaultValue = "0") int minCapacity,
+            @RequestParam(required = false) Double maxRate,
+            @RequestParam(defaultValue = "none") String sort,
+            @RequestParam(defaultValue = "" + VehicleService.MAX_PAGE_SIZE) int limit
+    ) {
+        VehicleSearchService.SortOrder order = switch (sort.toLowerCase()) {
+            case "price" -> VehicleSearchService.SortOrder.PRICE;
+            case "price_desc" -> VehicleSearchService.SortOrder.PRICE_DESC;
+            default -> VehicleSearchService.SortOrder.NONE;
+        };
+        int capped = Math.min(Math.max(limit, 1), VehicleService.MAX_PAGE_SIZE);
+        return ResponseEntity.ok(vehicleSearchService.search(city, types, minCapacity, maxRate, order, capped));
+    }
+
+    // k nearest available vehicles by home base, closest first: ?lat=&lon=&radiusKm=10&limit=20
+    @GetMapping("/nearby")
+    public ResponseEntity<List<NearbyVehicle>> nearbyVehicles(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam(defaultValue = "10") double radiusKm,
+            @RequestParam(defaultValue = "" + VehicleService.DEFAULT_PAGE_SIZE) int limit
+    ) {
+        if (!validCoordinates(lat, lon) || !(radiusKm > 0) || radiusKm > MAX_NEARBY_RADIUS_KM) {
+            return ResponseEntity.badRequest().build();
+        }
+        int capped = Math.min(Math.max(limit, 1), VehicleService.MAX_PAGE_SIZE);
+        return ResponseEntity.ok(vehicleSearchService.nearby(lat, lon, radiusKm, capped));
     }
 
     @GetMapping("/city/{city}")
-    public ResponseEntity<List<Vehicle>> getAvailableVehicles(@PathVariable String city) {
-        return ResponseEntity.ok(vehicleService.getAvailableVehiclesByCity(city));
+    @JsonView(Views.Public.class)
+    public ResponseEntity<List<Vehicle>> getAvailableVehicles(@PathVariable String city, WebRequest request) {
+        String etag = catalogEtag(catalogVersions.version(city), request);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return catalogResponse(etag).body(vehicleService.getAvailableVehiclesByCity(city));
+    }
+
+    // Streams the stored image; supports If-None-Match / If-Modified-Since and single byte ranges
+    @GetMapping("/{id}/image")
+    public void getVehicleImage(@PathVariable Long id, HttpServletRequest request,
+                                HttpServletResponse response) throws IOException {
+        Vehicle vehicle = vehicleService.getVehicleById(id);
+        Optional<StoredImage> found = imageStore.find(vehicle.getImageKey());
+        if (found.isEmpty()) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        StoredImage image = found.get();
+
+        // Content-addressed, so the key is a strong validator and the bytes never change
+        String etag = "\"" + image.key() + "\"";
+        if (new ServletWebRequest(request, response).checkNotModified(etag, image.lastModified())) {
+            return;
+        }
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable");
+        response.setContentType(image.contentType());
+
+        long start = 0;
+        long end = image.size() - 1;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && image.size() > 0) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException e) {
+                ranges = List.of();
+            }
+            if (ranges.size() != 1) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + image.size());
+                response.sendError(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                return;
+            }
+            HttpRange range = ranges.get(0);
+            start = range.getRangeStart(image.size());
+            end = range.getRangeEnd(image.size());
+            if (start > end) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + image.size());
+                response.sendError(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                return;
+            }
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + image.size());
+        }
+        long length = end - start + 1;
+        response.setContentLengthLong(Math.max(length, 0));
+        if ("HEAD".equals(request.getMethod()) || length <= 0) {
+            return;
+        }
+
+        // Let Tomcat hand the file straight to the socket when the connector supports sendfile
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, image.path().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        try (FileChannel file = image.openChannel()) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long sent = file.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    // both or neither, and on the globe
+    private static boolean validCoordinates(Double lat, Double lon) {
+        if (lat == null || lon == null) {
+            return lat == null && lon == null;
+        }
+        return lat >= -90 && lat <= 90 && lon >= -180 && lon <= 180;
+    }
+
+    // One tag per representation: JSON, CBOR and columnar bodies of the same version differ
+    private static String catalogEtag(long version, WebRequest request) {
+        String accept = String.valueOf(request.getHeader(HttpHeaders.ACCEPT));
+        String variant = accept.contains(JacksonConfig.COLUMNS_JSON) ? "columns"
+                : accept.contains("application/cbor") ? "cbor" : "json";
+        return "\"v" + version + "-" + variant + "\"";
+    }
+
+    // no-cache: browsers keep the body but revalidate every time, which costs a 304 at most
+    private static ResponseEntity.BodyBuilder catalogResponse(String etag) {
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT);
     }
 }
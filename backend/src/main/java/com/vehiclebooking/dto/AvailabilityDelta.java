@@ -0,0 +1,37 @@
+package com.vehiclebooking.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.vehiclebooking.model.Booking;
+import com.vehiclebooking.model.Vehicle;
+
+import java.time.Instant;
+
+/**
+ * One availability change pushed to listing pages; only the fields relevant to the type are set.
+ * CHANGED carries the vehicle's new state, REMOVED only its id, BOOKED the newly taken window.
+ * RESYNC only names a city whose listing changed in bulk (an import): refetch it.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record AvailabilityDelta(Type type, Long vehicleId, String city, Boolean available, Double ratePerKm,
+                                Instant bookedFrom, Instant bookedUntil) {
+
+    public enum Type { CHANGED, REMOVED, BOOKED, RESYNC }
+
+    public static AvailabilityDelta changed(Vehicle vehicle) {
+        return new AvailabilityDelta(Type.CHANGED, vehicle.getId(), vehicle.getCity(), vehicle.isAvailable(),
+                vehicle.getRatePerKm(), null, null);
+    }
+
+    public static AvailabilityDelta removed(Long vehicleId, String city) {
+        return new AvailabilityDelta(Type.REMOVED, vehicleId, city, null, null, null, null);
+    }
+
+    public static AvailabilityDelta resync(String city) {
+        return new AvailabilityDelta(Type.RESYNC, null, city, null, null, null, null);
+    }
+
+    public static AvailabilityDelta booked(Booking booking, String city) {
+        return new AvailabilityDelta(Type.BOOKED, booking.getVehicleId(), city, null, null,
+                booking.getStartTime(), booking.getEndTime());
+    }
+}
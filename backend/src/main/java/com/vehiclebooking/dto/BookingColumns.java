@@ -0,0 +1,34 @@
+package com.vehiclebooking.dto;
+
+import com.vehiclebooking.model.Booking;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Column-oriented booking list with the {@link Views.Public} properties; see {@link VehicleColumns}.
+ */
+public record BookingColumns(int count, long[] id, Long[] vehicleId, String[] pickupLocation,
+                             String[] dropLocation, double[] distanceInKm, double[] totalCost,
+                             boolean[] paid, boolean[] confirmed, Instant[] startTime, Instant[] endTime) {
+
+    public static BookingColumns of(List<Booking> bookings) {
+        int n = bookings.size();
+        BookingColumns c = new BookingColumns(n, new long[n], new Long[n], new String[n], new String[n],
+                new double[n], new double[n], new boolean[n], new boolean[n], new Instant[n], new Instant[n]);
+        for (int i = 0; i < n; i++) {
+            Booking b = bookings.get(i);
+            c.id[i] = b.getId();
+            c.vehicleId[i] = b.getVehicleId();
+            c.pickupLocation[i] = b.getPickupLocation();
+            c.dropLocation[i] = b.getDropLocation();
+            c.distanceInKm[i] = b.getDistanceInKm();
+            c.totalCost[i] = b.getTotalCost();
+            c.paid[i] = b.isPaid();
+            c.confirmed[i] = b.isConfirmed();
+            c.startTime[i] = b.getStartTime();
+            c.endTime[i] = b.getEndTime();
+        }
+        return c;
+    }
+}
@@ -0,0 +1,10 @@
+package com.vehiclebooking.dto;
+
+import java.time.Instant;
+
+/**
+ * Optional filters for booking history; a null field is not filtered on.
+ * {@code from}/{@code to} bound the booking's start time as [from, to).
+ */
+public record BookingFilter(Boolean paid, Boolean confirmed, Long vehicleId, Instant from, Instant to) {
+}
@@ -0,0 +1,11 @@
+package com.vehiclebooking.dto;
+
+public record FareQuote(
+        Long vehicleId,
+        String vehicleName,
+        double ratePerKm,
+        double distanceInKm,
+        double multiplier,      // type x time-of-week x surge, as applied to the distance fare
+        double totalCost
+) {
+}
@@ -0,0 +1,12 @@
+package com.vehiclebooking.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk vehicle import. {@code errors} is capped; {@code failed} is the full count.
+ */
+public record ImportReport(long imported, long failed, List<RowError> errors) {
+
+    public record RowError(long line, String message) {
+    }
+}
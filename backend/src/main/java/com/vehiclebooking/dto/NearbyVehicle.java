@@ -0,0 +1,9 @@
+package com.vehiclebooking.dto;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+/**
+ * A vehicle from the nearby search with its great-circle distance from the query point.
+ */
+public record NearbyVehicle(@JsonUnwrapped VehicleSummary vehicle, double distanceKm) {
+}
@@ -0,0 +1,28 @@
+package com.vehiclebooking.dto;
+
+import java.util.List;
+
+/**
+ * Owner dashboard figures over the trailing {@code days} (bucketed by booking start day, UTC).
+ */
+public record OwnerStats(
+        int days,
+        long bookings,
+        long paidBookings,
+        long unpaidBookings,
+        double revenue,
+        double paidRevenue,
+        double unpaidRevenue,
+        List<VehicleStats> vehicles
+) {
+    public record VehicleStats(
+            Long vehicleId,
+            String name,
+            long bookings,
+            long paidBookings,
+            double revenue,
+            double paidRevenue,
+            double utilization   // booked time / period length, 0..1
+    ) {
+    }
+}
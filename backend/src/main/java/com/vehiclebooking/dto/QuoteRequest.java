@@ -0,0 +1,61 @@
+package com.vehiclebooking.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+public class QuoteRequest {
+    private String pickupLocation;
+    private String dropLocation;
+    private List<Long> vehicleIds;
+    private Instant startTime;   // optional; defaults to now
+    private Instant endTime;     // optional; set it to price a multi-day rental
+
+    public QuoteRequest() {
+    }
+
+    public QuoteRequest(String pickupLocation, String dropLocation, List<Long> vehicleIds) {
+        this.pickupLocation = pickupLocation;
+        this.dropLocation = dropLocation;
+        this.vehicleIds = vehicleIds;
+    }
+
+    public String getPickupLocation() {
+        return pickupLocation;
+    }
+
+    public void setPickupLocation(String pickupLocation) {
+        this.pickupLocation = pickupLocation;
+    }
+
+    public String getDropLocation() {
+        return dropLocation;
+    }
+
+    public void setDropLocation(String dropLocation) {
+        this.dropLocation = dropLocation;
+    }
+
+    public List<Long> getVehicleIds() {
+        return vehicleIds;
+    }
+
+    public void setVehicleIds(List<Long> vehicleIds) {
+        this.vehicleIds = vehicleIds;
+    }
+
+    public Instant getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(Instant startTime) {
+        this.startTime = startTime;
+    }
+
+    public Instant getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(Instant endTime) {
+        this.endTime = endTime;
+    }
+}
@@ -0,0 +1,35 @@
+package com.vehiclebooking.dto;
+
+import com.vehiclebooking.model.Vehicle;
+
+import java.util.List;
+
+/**
+ * Column-oriented vehicle list: one array per public property instead of one object per vehicle,
+ * so property names are sent once and similar values sit together for the compressor.
+ * Served for {@code Accept: application/vnd.vehiclebooking.columns+json}.
+ */
+public record VehicleColumns(int count, long[] id, String[] name, String[] type, int[] capacity,
+                             double[] ratePerKm, boolean[] available, String[] city,
+                             Double[] latitude, Double[] longitude, String[] imageUrl) {
+
+    public static VehicleColumns of(List<Vehicle> vehicles) {
+        int n = vehicles.size();
+        VehicleColumns c = new VehicleColumns(n, new long[n], new String[n], new String[n], new int[n],
+                new double[n], new boolean[n], new String[n], new Double[n], new Double[n], new String[n]);
+        for (int i = 0; i < n; i++) {
+            Vehicle v = vehicles.get(i);
+            c.id[i] = v.getId();
+            c.name[i] = v.getName();
+            c.type[i] = v.getType();
+            c.capacity[i] = v.getCapacity();
+            c.ratePerKm[i] = v.getRatePerKm();
+            c.available[i] = v.isAvailable();
+            c.city[i] = v.getCity();
+            c.latitude[i] = v.getLatitude();
+            c.longitude[i] = v.getLongitude();
+            c.imageUrl[i] = v.getImageUrl();
+        }
+        return c;
+    }
+}
@@ -0,0 +1,26 @@
+package com.vehiclebooking.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Slim read model for vehicle listings; built straight from a JPQL constructor
+ * expression so the picture column is never selected.
+ */
+public record VehicleSummary(
+        Long id,
+        String name,
+        String type,
+        int capacity,
+        double ratePerKm,
+        boolean available,
+        String city,
+        Double latitude,
+        Double longitude,
+        @JsonIgnore String imageKey
+) {
+    @JsonProperty("imageUrl")
+    public String imageUrl() {
+        return imageKey == null ? null : "/api/vehicles/" + id + "/image";
+    }
+}
@@ -0,0 +1,19 @@
+package com.vehiclebooking.dto;
+
+/**
+ * Jackson views for entity list endpoints. Spring Boot turns off default view inclusion, so only
+ * properties tagged with the active view (or a parent of it) are written.
+ */
+public final class Views {
+
+    private Views() {
+    }
+
+    /** What any client listing vehicles or its own bookings needs. */
+    public interface Public {
+    }
+
+    /** Adds owner/customer identity for owner and admin screens. */
+    public interface Internal extends Public {
+    }
+}
@@ -1,8 +1,12 @@
 package com.vehiclebooking.model;
 
+import com.fasterxml.jackson.annotation.JsonView;
+import com.vehiclebooking.dto.Views;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.Instant;
+
 @Entity
 @Data
 @NoArgsConstructor
@@ -12,22 +16,41 @@ public class Booking {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @JsonView(Views.Public.class)
     private Long id;
 
+    @JsonView(Views.Internal.class)
     private String userEmail;
 
+    @JsonView(Views.Public.class)
     private boolean paid = false;
 
 
+    @JsonView(Views.Public.class)
     private Long vehicleId;
 
+    @JsonView(Views.Public.class)
     private String pickupLocation;
 
+    @JsonView(Views.Public.class)
     private String dropLocation;
 
+    @JsonView(Views.Public.class)
     private double distanceInKm;
 
+    @JsonView(Views.Public.class)
     private double totalCost;
 
+    @JsonView(Views.Public.class)
     private boolean confirmed;
+
+    @JsonView(Views.Public.class)
+    private Instant startTime;   // inclusive
+
+    @JsonView(Views.Public.class)
+    private Instant endTime;     // exclusive; [startTime, endTime) must not overlap another booking of the vehicle
+
+    @Version
+    @JsonView(Views.Internal.class)
+    private Long version;
 }
\ No newline at end of file
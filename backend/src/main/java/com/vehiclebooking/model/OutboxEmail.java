@@ -0,0 +1,45 @@
+package com.vehiclebooking.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "email_outbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEmail {
+
+    public enum Status { PENDING, SENDING, SENT, FAILED }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(unique = true, nullable = false)
+    private String dedupKey;     // e.g. "booking-confirmation:42"; one email per key
+
+    private String recipient;
+
+    private String subject;
+
+    @Column(columnDefinition = "TEXT")
+    private String body;         // HTML
+
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    private int attempts;
+
+    private Instant nextAttemptAt; // also the claim lease while SENDING
+
+    private Instant createdAt;
+
+    private Instant sentAt;
+
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+}
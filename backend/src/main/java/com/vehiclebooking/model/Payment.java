@@ -0,0 +1,59 @@
+package com.vehiclebooking.model;
+
+import com.fasterxml.jackson.annotation.JsonView;
+import com.vehiclebooking.dto.Views;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * One attempt to pay for a booking. Status only moves forward
+ * (INITIATED -> AUTHORIZED -> CAPTURED -> SETTLED, or to FAILED before capture), always through a conditional UPDATE
+ * in {@link com.vehiclebooking.repository.PaymentRepository}. Clients only see the {@link Views.Public}
+ * fields; the key, gateway reference and retry bookkeeping stay server-side.
+ */
+@Entity
+@Table(name = "payment")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Payment {
+
+    public enum Status { INITIATED, AUTHORIZED, CAPTURED, SETTLED, FAILED }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @JsonView(Views.Public.class)
+    private Long id;
+
+    @Column(nullable = false)
+    @JsonView(Views.Public.class)
+    private Long bookingId;
+
+    @Column(unique = true, nullable = false)
+    private String idempotencyKey;  // client-supplied Idempotency-Key header
+
+    @JsonView(Views.Public.class)
+    private double amount;
+
+    @Enumerated(EnumType.STRING)
+    @JsonView(Views.Public.class)
+    private Status status;
+
+    private String gatewayRef;      // authorization reference from the gateway
+
+    private int attempts;
+
+    private Instant nextAttemptAt;  // also the claim lease while the worker holds it
+
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+
+    @JsonView(Views.Public.class)
+    private Instant createdAt;
+
+    @JsonView(Views.Public.class)
+    private Instant updatedAt;
+}
@@ -1,5 +1,8 @@
 package com.vehiclebooking.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonView;
+import com.vehiclebooking.dto.Views;
 import jakarta.persistence.*;
 import lombok.Data;
 
@@ -8,28 +11,55 @@ import lombok.Data;
 @Table(name = "vehicles")
 public class Vehicle {
 
+    // Pooled sequence (not IDENTITY) so Hibernate can batch inserts during bulk import
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "vehicles_seq")
+    @SequenceGenerator(name = "vehicles_seq", sequenceName = "vehicles_id_seq", allocationSize = 50)
+    @JsonView(Views.Public.class)
     private Long id;
 
-    @Column(name = "picture")
-    private String picture; // stores image path or URL
+    @JsonIgnore
+    @Column(name = "picture", columnDefinition = "TEXT")
+    private String picture; // legacy Base64 payload, drained by ImageMigrationRunner
 
+    @JsonIgnore
+    @Column(name = "image_key")
+    private String imageKey; // content hash of the image held in the ImageStore
 
+    @JsonView(Views.Public.class)
     private String name;
 
+    @JsonView(Views.Public.class)
     private String type;
 
+    @JsonView(Views.Public.class)
     private int capacity;
 
+    @JsonView(Views.Public.class)
     private double ratePerKm;
 
+    @JsonView(Views.Public.class)
     private boolean available;
 
+    @JsonView(Views.Public.class)
     private String city;
 
+    // home base; when unset the vehicle is placed at its city's centre for nearby search
+    @JsonView(Views.Public.class)
+    private Double latitude;
+
+    @JsonView(Views.Public.class)
+    private Double longitude;
+
+    @JsonView(Views.Internal.class)
     private String ownerEmail;
 
-    @Column(name = "picture")
-    private String imageUrl; // ✅ Add this field for image support
+    // Clients only ever see a link; the bytes are streamed by GET /api/vehicles/{id}/image
+    @JsonView(Views.Public.class)
+    public String getImageUrl() {
+        if (id == null || imageKey == null) {
+            return null;
+        }
+        return "/api/vehicles/" + id + "/image";
+    }
 }
@@ -0,0 +1,63 @@
+package com.vehiclebooking.payment;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * In-process gateway for local runs and tests; selected with {@code app.payments.gateway=fake}.
+ * Authorizations are idempotent per key like a real processor's. Non-positive amounts are declined,
+ * and {@code app.payments.fake.failure-rate} injects transient errors to exercise the retries.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.payments.gateway", havingValue = "fake", matchIfMissing = true)
+public class FakePaymentGateway implements PaymentGateway {
+
+    private final double failureRate;
+    private final Map<String, String> authorizations = new ConcurrentHashMap<>();
+    private final List<String> captures = new CopyOnWriteArrayList<>();
+
+    public FakePaymentGateway(@Value("${app.payments.fake.failure-rate:0}") double failureRate) {
+        this.failureRate = failureRate;
+    }
+
+    @Override
+    public String authorize(String idempotencyKey, double amount) {
+        maybeFail();
+        if (amount <= 0) {
+            throw new PaymentDeclinedException("Amount must be positive");
+        }
+        return authorizations.computeIfAbsent(idempotencyKey, k -> "fake-auth-" + UUID.randomUUID());
+    }
+
+    @Override
+    public void capture(String authorizationRef, double amount) {
+        maybeFail();
+        if (!authorizations.containsValue(authorizationRef)) {
+            throw new PaymentDeclinedException("Unknown authorization " + authorizationRef);
+        }
+        if (!captures.contains(authorizationRef)) {
+            captures.add(authorizationRef);
+            log.info("Fake gateway captured {} for {}", amount, authorizationRef);
+        }
+    }
+
+    public List<String> getCaptures() {
+        return List.copyOf(captures);
+    }
+
+    private void maybeFail() {
+        if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+            throw new IllegalStateException("Fake gateway timeout");
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.vehiclebooking.payment;
+
+/**
+ * A permanent refusal from the gateway; the payment is failed rather than retried.
+ */
+public class PaymentDeclinedException extends RuntimeException {
+    public PaymentDeclinedException(String message) {
+        super(message);
+    }
+}
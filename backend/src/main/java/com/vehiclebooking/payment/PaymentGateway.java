@@ -0,0 +1,17 @@
+package com.vehiclebooking.payment;
+
+/**
+ * A card/UPI processor. Implementations must be idempotent on {@code idempotencyKey}: the
+ * settlement worker retries after timeouts and expects the same authorization back.
+ *
+ * <p>Throw {@link PaymentDeclinedException} for a final "no"; any other exception is treated
+ * as transient and retried with backoff.
+ */
+public interface PaymentGateway {
+
+    /** Reserves {@code amount} and returns the gateway's authorization reference. */
+    String authorize(String idempotencyKey, double amount);
+
+    /** Captures a previous authorization; capturing the same authorization again must not charge twice. */
+    void capture(String authorizationRef, double amount);
+}
@@ -2,11 +2,27 @@ package com.vehiclebooking.repository;
 
 import com.vehiclebooking.model.Booking;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.List;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
     List<Booking> findByUserEmail(String email);
-}
\ No newline at end of file
+
+    // half-open windows: [s1, e1) and [s2, e2) overlap when s1 < e2 and s2 < e1
+    @Query("SELECT COUNT(b) > 0 FROM Booking b WHERE b.vehicleId = :vehicleId AND b.confirmed = true " +
+            "AND b.startTime < :endTime AND b.endTime > :startTime")
+    boolean existsOverlapping(@Param("vehicleId") Long vehicleId,
+                              @Param("startTime") Instant startTime,
+                              @Param("endTime") Instant endTime);
+
+    // Conditional update: only the first settlement flips the flag (and bumps @Version)
+    @Modifying
+    @Query("UPDATE Booking b SET b.paid = true, b.version = b.version + 1 WHERE b.id = :id AND b.paid = false")
+    int markPaid(@Param("id") Long id);
+}
@@ -0,0 +1,32 @@
+package com.vehiclebooking.repository;
+
+import com.vehiclebooking.model.OutboxEmail;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface OutboxEmailRepository extends JpaRepository<OutboxEmail, Long> {
+    // A duplicate dedup_key inserts nothing instead of failing (and rolling back) the caller's transaction
+    @Modifying
+    @Query(value = "INSERT INTO email_outbox (dedup_key, recipient, subject, body, status, attempts, " +
+            "next_attempt_at, created_at) " +
+            "VALUES (:dedupKey, :recipient, :subject, :body, 'PENDING', 0, :now, :now) " +
+            "ON CONFLICT (dedup_key) DO NOTHING",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("dedupKey") String dedupKey, @Param("recipient") String recipient,
+                       @Param("subject") String subject, @Param("body") String body, @Param("now") Instant now);
+
+    long countByStatus(OutboxEmail.Status status);
+
+    // SKIP LOCKED lets several backend instances drain the outbox without stepping on each other
+    @Query(value = "SELECT * FROM email_outbox WHERE status IN ('PENDING', 'SENDING') " +
+            "AND next_attempt_at <= :now ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<OutboxEmail> lockDue(@Param("now") Instant now, @Param("limit") int limit);
+}
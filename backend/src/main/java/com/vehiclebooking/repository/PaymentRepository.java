@@ -0,0 +1,74 @@
+package com.vehiclebooking.repository;
+
+import com.vehiclebooking.model.Payment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Every status change is a compare-and-set: the UPDATE only matches while the payment is still in
+ * the expected state, and the returned row count tells the caller whether it won.
+ */
+@Repository
+public interface PaymentRepository extends JpaRepository<Payment, Long> {
+    Optional<Payment> findByIdempotencyKey(String idempotencyKey);
+
+    Optional<Payment> findFirstByBookingIdAndStatusNot(Long bookingId, Payment.Status status);
+
+    Optional<Payment> findFirstByBookingIdOrderByIdDesc(Long bookingId);
+
+    long countByStatusIn(Collection<Payment.Status> statuses);
+
+    // Conflicts on either the idempotency key or the one-live-payment-per-booking index insert nothing
+    @Modifying
+    @Query(value = "INSERT INTO payment (booking_id, idempotency_key, amount, status, attempts, " +
+            "next_attempt_at, created_at, updated_at) " +
+            "VALUES (:bookingId, :key, :amount, 'INITIATED', 0, :now, :now, :now) ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("bookingId") Long bookingId, @Param("key") String idempotencyKey,
+                       @Param("amount") double amount, @Param("now") Instant now);
+
+    @Query(value = "SELECT * FROM payment WHERE status IN ('INITIATED', 'AUTHORIZED', 'CAPTURED') " +
+            "AND next_attempt_at <= :now ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<Payment> lockDue(@Param("now") Instant now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE Payment p SET p.nextAttemptAt = :lease WHERE p.id IN :ids")
+    int lease(@Param("ids") Collection<Long> ids, @Param("lease") Instant lease);
+
+    @Modifying
+    @Query(value = "UPDATE payment SET status = 'AUTHORIZED', gateway_ref = :ref, last_error = NULL, " +
+            "updated_at = :now WHERE id = :id AND status = 'INITIATED'", nativeQuery = true)
+    int markAuthorized(@Param("id") Long id, @Param("ref") String gatewayRef, @Param("now") Instant now);
+
+    @Modifying
+    @Query(value = "UPDATE payment SET status = 'CAPTURED', last_error = NULL, " +
+            "updated_at = :now WHERE id = :id AND status = 'AUTHORIZED'", nativeQuery = true)
+    int markCaptured(@Param("id") Long id, @Param("now") Instant now);
+
+    @Modifying
+    @Query(value = "UPDATE payment SET status = 'SETTLED', last_error = NULL, next_attempt_at = NULL, " +
+            "updated_at = :now WHERE id = :id AND status = 'CAPTURED'", nativeQuery = true)
+    int markSettled(@Param("id") Long id, @Param("now") Instant now);
+
+    // Never matches CAPTURED: once the money is taken the payment can only settle
+    @Modifying
+    @Query(value = "UPDATE payment SET status = 'FAILED', last_error = :error, next_attempt_at = NULL, " +
+            "updated_at = :now WHERE id = :id AND status IN ('INITIATED', 'AUTHORIZED')", nativeQuery = true)
+    int markFailed(@Param("id") Long id, @Param("error") String error, @Param("now") Instant now);
+
+    // Only reschedules while the payment is still in the state the worker saw
+    @Modifying
+    @Query(value = "UPDATE payment SET attempts = attempts + 1, last_error = :error, next_attempt_at = :next, " +
+            "updated_at = :now WHERE id = :id AND status = :#{#status.name()}", nativeQuery = true)
+    int scheduleRetry(@Param("id") Long id, @Param("status") Payment.Status status, @Param("error") String error,
+                      @Param("next") Instant nextAttemptAt, @Param("now") Instant now);
+}
@@ -1,13 +1,55 @@
 package com.vehiclebooking.repository;
 
+import com.vehiclebooking.dto.VehicleSummary;
 import com.vehiclebooking.model.Vehicle;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface VehicleRepository extends JpaRepository<Vehicle, Long> {
     List<Vehicle> findByCityAndAvailableTrue(String city);
     List<Vehicle> findByOwnerEmail(String ownerEmail);
+
+    @Query("SELECT new com.vehiclebooking.dto.VehicleSummary(v.id, v.name, v.type, v.capacity, v.ratePerKm, " +
+            "v.available, v.city, v.latitude, v.longitude, v.imageKey) FROM Vehicle v WHERE v.ownerEmail = :ownerEmail ORDER BY v.id")
+    List<VehicleSummary> findSummariesByOwnerEmail(@Param("ownerEmail") String ownerEmail);
+
+    // Cursor-backed stream for exports; must be consumed inside a (read-only) transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.vehiclebooking.dto.VehicleSummary(v.id, v.name, v.type, v.capacity, v.ratePerKm, " +
+            "v.available, v.city, v.latitude, v.longitude, v.imageKey) FROM Vehicle v WHERE v.ownerEmail = :ownerEmail ORDER BY v.id")
+    Stream<VehicleSummary> streamSummariesByOwnerEmail(@Param("ownerEmail") String ownerEmail);
+
+    // ------------------- KEYSET PAGINATION ------------------------
+    // Pass PageRequest.of(0, size) so only a LIMIT is applied, never an OFFSET.
+
+    @Query("SELECT new com.vehiclebooking.dto.VehicleSummary(v.id, v.name, v.type, v.capacity, v.ratePerKm, " +
+            "v.available, v.city, v.latitude, v.longitude, v.imageKey) FROM Vehicle v " +
+            "WHERE v.id > :afterId ORDER BY v.id")
+    List<VehicleSummary> findPageById(@Param("afterId") long afterId, Pageable limit);
+
+    @Query("SELECT new com.vehiclebooking.dto.VehicleSummary(v.id, v.name, v.type, v.capacity, v.ratePerKm, " +
+            "v.available, v.city, v.latitude, v.longitude, v.imageKey) FROM Vehicle v " +
+            "ORDER BY v.ratePerKm, v.id")
+    List<VehicleSummary> findFirstPageByRate(Pageable limit);
+
+    @Query("SELECT new com.vehiclebooking.dto.VehicleSummary(v.id, v.name, v.type, v.capacity, v.ratePerKm, " +
+            "v.available, v.city, v.latitude, v.longitude, v.imageKey) FROM Vehicle v " +
+            "WHERE v.ratePerKm > :afterRate OR (v.ratePerKm = :afterRate AND v.id > :afterId) " +
+            "ORDER BY v.ratePerKm, v.id")
+    List<VehicleSummary> findPageByRate(@Param("afterRate") double afterRate,
+                                        @Param("afterId") long afterId,
+                                        Pageable limit);
 }
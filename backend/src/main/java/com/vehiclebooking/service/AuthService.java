@@ -1,5 +1,6 @@
 package com.vehiclebooking.service;
 
+import com.vehiclebooking.config.PrincipalCache;
 import com.vehiclebooking.dto.AuthRequest;
 import com.vehiclebooking.dto.AuthResponse;
 import com.vehiclebooking.dto.RegisterRequest;
@@ -8,7 +9,6 @@ import com.vehiclebooking.repository.UserRepository;
 import com.vehiclebooking.util.JwtUtil;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -16,8 +16,10 @@ import org.springframework.stereotype.Service;
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordVerifier passwordVerifier;
+    private final LoginRateLimiter loginRateLimiter;
     private final JwtUtil jwtUtil;
+    private final PrincipalCache principalCache;
 
     // ------------------ Register USER ------------------
     public AuthResponse registerUser(RegisterRequest request) {
@@ -30,11 +32,12 @@ public class AuthService {
                 .lastName(request.getLastName())
                 .phoneNumber(request.getPhone())
                 .email(request.getEmail())
-                .password(passwordEncoder.encode(request.getPassword()))
+                .password(passwordVerifier.encode(request.getPassword()))
                 .role("USER")
                 .build();
 
         userRepository.save(user);
+        principalCache.evict(user.getEmail());
         String token = jwtUtil.generateToken(user.getEmail());
         return new AuthResponse(token, user.getRole());
     }
@@ -50,46 +53,69 @@ public class AuthService {
                 .companyName(request.getCompanyName())
                 .phoneNumber(request.getPhone())
                 .email(request.getEmail())
-                .password(passwordEncoder.encode(request.getPassword()))
+                .password(passwordVerifier.encode(request.getPassword()))
                 .role("OWNER")
                 .build();
 
         userRepository.save(user);
+        principalCache.evict(user.getEmail());
         String token = jwtUtil.generateToken(user.getEmail());
         return new AuthResponse(token, user.getRole());
     }
 
     // ------------------ Login USER ------------------
-    public AuthResponse loginUser(AuthRequest request) {
+    public AuthResponse loginUser(AuthRequest request, String clientIp) {
+        loginRateLimiter.checkAttempt(request.getEmail(), clientIp);
         User user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new RuntimeException("Invalid email or password"));
+                .orElseThrow(() -> invalidCredentials(request));
 
-        if (!"USER".equalsIgnoreCase(user.getRole())) {
-            throw new RuntimeException("Account is not a user account");
-        }
-
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
-            throw new RuntimeException("Invalid email or password");
-        }
+        verifyPassword(request, user);
+        checkRole(request, user, "USER", "Account is not a user account");
 
         String token = jwtUtil.generateToken(user.getEmail());
         return new AuthResponse(token, user.getRole());
     }
 
     // ------------------ Login OWNER ------------------
-    public AuthResponse loginOwner(AuthRequest request) {
+    public AuthResponse loginOwner(AuthRequest request, String clientIp) {
+        loginRateLimiter.checkAttempt(request.getEmail(), clientIp);
         User user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new RuntimeException("Invalid email or password"));
+                .orElseThrow(() -> invalidCredentials(request));
+
+        verifyPassword(request, user);
+        checkRole(request, user, "OWNER", "Account is not an owner account");
+
+        String token = jwtUtil.generateToken(user.getEmail());
+        return new AuthResponse(token, user.getRole());
+    }
 
-        if (!"OWNER".equalsIgnoreCase(user.getRole())) {
-            throw new RuntimeException("Account is not an owner account");
+    // ------------------ HELPER METHODS ------------------
+
+    private void verifyPassword(AuthRequest request, User user) {
+        if (!passwordVerifier.matches(request.getPassword(), user.getPassword())) {
+            throw invalidCredentials(request);
         }
 
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
-            throw new RuntimeException("Invalid email or password");
+        // Transparently move old hashes to the current algorithm / cost while we have the plaintext
+        if (passwordVerifier.needsUpgrade(user.getPassword())) {
+            user.setPassword(passwordVerifier.encode(request.getPassword()));
+            userRepository.save(user);
+            principalCache.evict(user.getEmail());
         }
+    }
 
-        String token = jwtUtil.generateToken(user.getEmail());
-        return new AuthResponse(token, user.getRole());
+    // Checked after the password, so the role is not revealed without it. A mismatch counts as a
+    // failed attempt: it must not clear the email's failures the way a successful login does
+    private void checkRole(AuthRequest request, User user, String role, String message) {
+        if (!role.equalsIgnoreCase(user.getRole())) {
+            loginRateLimiter.recordFailure(request.getEmail());
+            throw new RuntimeException(message);
+        }
+        loginRateLimiter.recordSuccess(request.getEmail());
+    }
+
+    private RuntimeException invalidCredentials(AuthRequest request) {
+        loginRateLimiter.recordFailure(request.getEmail());
+        return new RuntimeException("Invalid email or password");
     }
 }
@@ -0,0 +1,309 @@
+package com.vehiclebooking.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vehiclebooking.dto.AvailabilityDelta;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fans availability deltas out to Server-Sent Event subscribers, scoped by city.
+ *
+ * <p>An idle subscriber holds no thread, only its emitter. Publishing never blocks: a delta is
+ * queued per subscriber and a virtual thread drains the queue only while there is something to
+ * send. Queued changes to the same vehicle are coalesced to the latest state; a subscriber that
+ * still falls more than {@code max-pending} deltas behind gets a {@code resync} event and is
+ * disconnected, so one slow client can never hold unbounded memory. A bulk change (an import)
+ * is also sent as a {@code resync} event, carrying the city, but the subscriber stays connected.
+ *
+ * <p>Deltas travel between instances through Postgres NOTIFY, and each instance pushes the ones
+ * it receives on {@link VehicleCache}'s listener connection, including its own.
+ */
+@Slf4j
+@Service
+public class AvailabilityBroadcaster {
+
+    private static final String ALL_CITIES = "";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final String channel;
+    private final boolean relay;
+    private final long emitterTimeoutMillis;
+    private final int maxSubscribers;
+    private final int maxPending;
+    private final Map<String, Set<Subscriber>> subscribersByCity = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final Counter resyncs;
+
+    public AvailabilityBroadcaster(JdbcTemplate jdbcTemplate,
+                                   ObjectMapper objectMapper,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.availability.channel:vehicle_availability}") String channel,
+                                   @Value("${app.cache.vehicles.listen:true}") boolean relay,
+                                   @Value("${app.availability.emitter-timeout-minutes:30}") long emitterTimeoutMinutes,
+                                   @Value("${app.availability.max-subscribers:20000}") int maxSubscribers,
+                                   @Value("${app.availability.max-pending:256}") int maxPending) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.channel = channel;
+        this.relay = relay;
+        this.emitterTimeoutMillis = TimeUnit.MINUTES.toMillis(emitterTimeoutMinutes);
+        this.maxSubscribers = maxSubscribers;
+        this.maxPending = maxPending;
+        meterRegistry.gauge("vehicles.availability.subscribers", subscriberCount);
+        this.resyncs = Counter.builder("vehicles.availability.resyncs")
+                .description("Subscribers disconnected for falling too far behind")
+                .register(meterRegistry);
+    }
+
+    /** The NOTIFY channel {@link VehicleCache} should also LISTEN on. */
+    public String channel() {
+        return channel;
+    }
+
+    // ------------------- SUBSCRIBE ------------------------
+
+    /**
+     * @param city only deltas for this city are pushed; null subscribes to every city
+     */
+    public SseEmitter subscribe(String city) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many availability subscribers");
+        }
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        Subscriber subscriber = new Subscriber(key(city), emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+        subscribersByCity.computeIfAbsent(subscriber.key, k -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        try {
+            // commits the response headers so proxies start streaming straight away
+            emitter.send(SseEmitter.event().reconnectTime(3000).comment("subscribed"));
+        } catch (IOException e) {
+            subscriber.close();
+        }
+        return emitter;
+    }
+
+    // ------------------- PUBLISH ------------------------
+
+    /** Call after the change has committed. */
+    public void publish(AvailabilityDelta delta) {
+        if (relay) {
+            try {
+                jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class,
+                        channel, objectMapper.writeValueAsString(delta));
+                return; // delivered back to this instance by the listener
+            } catch (JsonProcessingException | RuntimeException e) {
+                log.warn("Could not relay availability change for {}: {}", delta.vehicleId(), e.getMessage());
+            }
+        }
+        dispatch(delta);
+    }
+
+    /** A delta relayed through NOTIFY by any instance. */
+    void onRelayed(String payload) {
+        try {
+            dispatch(objectMapper.readValue(payload, AvailabilityDelta.class));
+        } catch (JsonProcessingException e) {
+            log.warn("Bad availability notification '{}'", payload);
+        }
+    }
+
+    private void dispatch(AvailabilityDelta delta) {
+        if (subscriberCount.get() == 0) {
+            return;
+        }
+        if (delta.city() == null) {
+            subscribersByCity.values().forEach(set -> set.forEach(s -> s.offer(delta)));
+            return;
+        }
+        offerAll(subscribersByCity.get(key(delta.city())), delta);
+        offerAll(subscribersByCity.get(ALL_CITIES), delta);
+    }
+
+    private static void offerAll(Set<Subscriber> subscribers, AvailabilityDelta delta) {
+        if (subscribers != null) {
+            subscribers.forEach(s -> s.offer(delta));
+        }
+    }
+
+    // Keeps idle connections alive through proxies and finds clients that went away
+    @Scheduled(fixedDelayString = "${app.availability.heartbeat-seconds:25}", timeUnit = TimeUnit.SECONDS)
+    public void heartbeat() {
+        subscribersByCity.values().forEach(set -> set.forEach(Subscriber::ping));
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void closeAll() {
+        subscribersByCity.values().forEach(set -> set.forEach(s -> {
+            s.close();
+            s.emitter.complete();
+        }));
+    }
+
+    private static String key(String city) {
+        return city == null || city.isBlank() ? ALL_CITIES : city.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // ------------------- SUBSCRIBER ------------------------
+
+    private final class Subscriber {
+
+        final String key;
+        final SseEmitter emitter;
+        private final ReentrantLock lock = new ReentrantLock();
+        // vehicle id -> latest delta; bookings get their own keys so none are lost, resyncs one per city
+        private final LinkedHashMap<Object, AvailabilityDelta> pending = new LinkedHashMap<>();
+        private boolean draining;
+        private boolean pingDue;
+        private boolean overflowed;
+        private boolean closed;
+
+        Subscriber(String key, SseEmitter emitter) {
+            this.key = key;
+            this.emitter = emitter;
+        }
+
+        void offer(AvailabilityDelta delta) {
+            lock.lock();
+            try {
+                if (closed || overflowed) {
+                    return;
+                }
+                Object slot = switch (delta.type()) {
+                    case BOOKED -> new Object();
+                    case RESYNC -> "resync:" + delta.city();
+                    default -> delta.vehicleId();
+                };
+                pending.remove(slot);
+                pending.put(slot, delta);
+                if (pending.size() > maxPending) {
+                    overflowed = true;
+                    pending.clear();
+                }
+            } finally {
+                lock.unlock();
+            }
+            startDrain();
+        }
+
+        void ping() {
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                pingDue = true;
+            } finally {
+                lock.unlock();
+            }
+            startDrain();
+        }
+
+        private void startDrain() {
+            lock.lock();
+            try {
+                if (closed || draining) {
+                    return;
+                }
+                draining = true;
+            } finally {
+                lock.unlock();
+            }
+            Thread.ofVirtual().name("availability-push").start(this::drain);
+        }
+
+        // Runs until the queue is empty; a blocked send only parks this virtual thread
+        private void drain() {
+            while (true) {
+                AvailabilityDelta next = null;
+                boolean resync = false;
+                boolean ping = false;
+                lock.lock();
+                try {
+                    if (closed) {
+                        draining = false;
+                        return;
+                    }
+                    if (overflowed) {
+                        resync = true;
+                    } else if (!pending.isEmpty()) {
+                        Iterator<AvailabilityDelta> it = pending.values().iterator();
+                        next = it.next();
+                        it.remove();
+                    } else if (pingDue) {
+                        ping = true;
+                        pingDue = false;
+                    } else {
+                        draining = false;
+                        return;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                try {
+                    if (resync) {
+                        resyncs.increment();
+                        emitter.send(SseEmitter.event().name("resync").data("refetch"));
+                        close();
+                        emitter.complete();
+                        return;
+                    } else if (next != null) {
+                        // listing pages refetch on "resync" and only patch rows on "delta"
+                        String name = next.type() == AvailabilityDelta.Type.RESYNC ? "resync" : "delta";
+                        emitter.send(SseEmitter.event().name(name).data(next, MediaType.APPLICATION_JSON));
+                    } else if (ping) {
+                        emitter.send(SseEmitter.event().comment("ping"));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    // client went away; the emitter's error callback may already have closed us
+                    close();
+                    return;
+                }
+            }
+        }
+
+        void close() {
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                draining = false;
+                pending.clear();
+            } finally {
+                lock.unlock();
+            }
+            Set<Subscriber> set = subscribersByCity.get(key);
+            if (set != null && set.remove(this)) {
+                subscriberCount.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.vehiclebooking.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.vehiclebooking.dto.BookingFilter;
+import com.vehiclebooking.dto.Views;
+import com.vehiclebooking.model.Booking;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Streams booking history straight from a database cursor to the response as NDJSON or as
+ * one chunked JSON array. Each row is detached once written, so memory stays flat however
+ * many bookings match.
+ */
+@Service
+@RequiredArgsConstructor
+public class BookingHistoryService {
+
+    public enum Format { NDJSON, JSON }
+
+    private static final int FETCH_SIZE = 500;
+
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Writes the bookings matching {@code filter}, oldest first.
+     *
+     * @param userEmail restricts to one customer; null streams every booking
+     */
+    public void streamBookings(OutputStream out, Format format, String userEmail, BookingFilter filter)
+            throws IOException {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        // same views as the list endpoints: customers don't get their own email echoed back per row
+        // and no flush per row, only the periodic one below
+        ObjectWriter writer = objectMapper.writerWithView(userEmail != null ? Views.Public.class : Views.Internal.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+        json.setRootValueSeparator(null);
+        if (format == Format.JSON) {
+            json.writeStartArray();
+        }
+        try {
+            tx.executeWithoutResult(status -> {
+                try (Stream<Booking> rows = query(userEmail, filter).getResultStream()) {
+                    int[] written = {0};
+                    rows.forEach(booking -> {
+                        try {
+                            writer.writeValue(json, booking);
+                            if (format == Format.NDJSON) {
+                                json.writeRaw('\n');
+                            }
+                            // push a chunk to the client once per fetch instead of buffering everything
+                            if (++written[0] % FETCH_SIZE == 0) {
+                                json.flush();
+                            }
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        entityManager.detach(booking);
+                    });
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (format == Format.JSON) {
+            json.writeEndArray();
+        }
+        json.flush();
+    }
+
+    // Only the filters actually given end up in the WHERE clause, so the planner can use
+    // booking(user_email) and booking(vehicle_id, start_time)
+    private TypedQuery<Booking> query(String userEmail, BookingFilter filter) {
+        StringBuilder jpql = new StringBuilder("SELECT b FROM Booking b WHERE 1 = 1");
+        Map<String, Object> params = new LinkedHashMap<>();
+        if (userEmail != null) {
+            jpql.append(" AND b.userEmail = :userEmail");
+            params.put("userEmail", userEmail);
+        }
+        if (filter.paid() != null) {
+            jpql.append(" AND b.paid = :paid");
+            params.put("paid", filter.paid());
+        }
+        if (filter.confirmed() != null) {
+            jpql.append(" AND b.confirmed = :confirmed");
+            params.put("confirmed", filter.confirmed());
+        }
+        if (filter.vehicleId() != null) {
+            jpql.append(" AND b.vehicleId = :vehicleId");
+            params.put("vehicleId", filter.vehicleId());
+        }
+        if (filter.from() != null) {
+            jpql.append(" AND b.startTime >= :from");
+            params.put("from", filter.from());
+        }
+        if (filter.to() != null) {
+            jpql.append(" AND b.startTime < :to");
+            params.put("to", filter.to());
+        }
+        jpql.append(" ORDER BY b.id");
+
+        TypedQuery<Booking> query = entityManager.createQuery(jpql.toString(), Booking.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+        params.forEach(query::setParameter);
+        return query;
+    }
+}
@@ -1,40 +1,139 @@
 package com.vehiclebooking.service;
 
+import com.vehiclebooking.config.ReadYourWrites;
+import com.vehiclebooking.dto.AvailabilityDelta;
+import com.vehiclebooking.dto.FareQuote;
 import com.vehiclebooking.model.Booking;
 import com.vehiclebooking.model.Vehicle;
 import com.vehiclebooking.repository.BookingRepository;
-import com.vehiclebooking.repository.VehicleRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.HtmlUtils;
 
+import java.sql.SQLException;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Service
 @RequiredArgsConstructor
 public class BookingService {
 
     private final BookingRepository bookingRepository;
-    private final VehicleRepository vehicleRepository;
+    private final VehicleCache vehicleCache;
+    private final EmailService emailService;
+    private final FareQuoteService fareQuoteService;
+    private final OwnerStatsService ownerStatsService;
+    private final AvailabilityBroadcaster availabilityBroadcaster;
+    private final PricingEngine pricingEngine;
+    private final CatalogVersions catalogVersions;
+    private final ReadYourWrites readYourWrites;
+    private final TransactionTemplate transactionTemplate;
+
+    // Per-vehicle striped locks: requests for the same vehicle queue here instead of racing
+    // into the database. The booking_no_overlap exclusion constraint covers other instances.
+    private static final int LOCK_STRIPES = 256;
+    private static final String EXCLUSION_VIOLATION = "23P01";
+    private static final String OVERLAP_CONSTRAINT = "booking_no_overlap";
+    private final ReentrantLock[] vehicleLocks = newStripes();
 
     public Booking createBooking(Booking booking) {
-        Vehicle vehicle = vehicleRepository.findById(booking.getVehicleId()).orElseThrow();
-        double totalCost = booking.getDistanceInKm() * vehicle.getRatePerKm();
-        booking.setTotalCost(totalCost);
+        if (booking.getVehicleId() == null || booking.getStartTime() == null || booking.getEndTime() == null
+                || !booking.getStartTime().isBefore(booking.getEndTime())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "vehicleId, startTime and endTime are required and startTime must be before endTime");
+        }
+        ReentrantLock lock = vehicleLocks[Math.floorMod(booking.getVehicleId().hashCode(), LOCK_STRIPES)];
+        Booking saved;
+        lock.lock();
+        try {
+            // the transaction commits before the lock is released
+            saved = transactionTemplate.execute(status -> reserve(booking));
+        } catch (DataIntegrityViolationException e) {
+            if (!isOverlap(e)) {
+                throw e;
+            }
+            throw new BookingConflictException("Vehicle " + booking.getVehicleId() + " is already booked for that time");
+        } finally {
+            lock.unlock();
+        }
+        readYourWrites.record("user:" + saved.getUserEmail());
+        String city = vehicleCache.getById(saved.getVehicleId()).map(Vehicle::getCity).orElse(null);
+        pricingEngine.recordBooking(city);
+        availabilityBroadcaster.publish(AvailabilityDelta.booked(saved, city));
+        catalogVersions.bump(city);
+        return saved;
+    }
+
+    private Booking reserve(Booking booking) {
+        Vehicle vehicle = vehicleCache.getById(booking.getVehicleId())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "Vehicle not found: " + booking.getVehicleId()));
+        if (!vehicle.isAvailable()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Vehicle " + vehicle.getId() + " is not available");
+        }
+        if (bookingRepository.existsOverlapping(vehicle.getId(), booking.getStartTime(), booking.getEndTime())) {
+            throw new BookingConflictException("Vehicle " + vehicle.getId() + " is already booked for that time");
+        }
+        // the client's distanceInKm is ignored; the route is priced server-side
+        FareQuote quote = fareQuoteService.quote(vehicle,
+                fareQuoteService.distanceKm(booking.getPickupLocation(), booking.getDropLocation()),
+                booking.getStartTime(), booking.getEndTime());
+        booking.setId(null);
+        booking.setVersion(null);
+        booking.setPaid(false);
+        booking.setDistanceInKm(quote.distanceInKm());
+        booking.setTotalCost(quote.totalCost());
         booking.setConfirmed(true);
-        return bookingRepository.save(booking);
+        Booking saved = bookingRepository.saveAndFlush(booking);
+        ownerStatsService.recordBooking(saved, vehicle);
+        // queued in this transaction; EmailOutboxDispatcher delivers it after commit
+        emailService.enqueue("booking-confirmation:" + saved.getId(), saved.getUserEmail(),
+                "Booking confirmed: " + vehicle.getName(), confirmationBody(saved, vehicle));
+        return saved;
     }
-    // BookingService.java (add this method)
-    public Booking payForBooking(Long bookingId) {
-        Booking booking = bookingRepository.findById(bookingId).orElseThrow();
-        booking.setPaid(true);
-        return bookingRepository.save(booking);
+
+    // Only booking_no_overlap is a double booking; other integrity errors are real failures
+    private static boolean isOverlap(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sql && EXCLUSION_VIOLATION.equals(sql.getSQLState())) {
+                return true;
+            }
+        }
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.contains(OVERLAP_CONSTRAINT);
     }
 
+    private static ReentrantLock[] newStripes() {
+        ReentrantLock[] stripes = new ReentrantLock[LOCK_STRIPES];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        return stripes;
+    }
+
+    private static String confirmationBody(Booking booking, Vehicle vehicle) {
+        return "<h2>Your booking is confirmed</h2>"
+                + "<p>Booking #" + booking.getId() + " for <b>" + HtmlUtils.htmlEscape(String.valueOf(vehicle.getName()))
+                + "</b></p>"
+                + "<p>From " + HtmlUtils.htmlEscape(String.valueOf(booking.getPickupLocation()))
+                + " to " + HtmlUtils.htmlEscape(String.valueOf(booking.getDropLocation()))
+                + " (" + booking.getDistanceInKm() + " km)</p>"
+                + "<p>" + booking.getStartTime() + " &ndash; " + booking.getEndTime() + "</p>"
+                + "<p>Total cost: " + booking.getTotalCost() + "</p>";
+    }
 
+    // Replica reads, except for a user who has just booked and expects to see it
+    @Transactional(readOnly = true)
     public List<Booking> getBookingsByUser(String email) {
-        return bookingRepository.findByUserEmail(email);
+        return readYourWrites.read("user:" + email, () -> bookingRepository.findByUserEmail(email));
     }
 
+    @Transactional(readOnly = true)
     public List<Booking> getAllBookings() {
         return bookingRepository.findAll();
     }
@@ -0,0 +1,134 @@
+package com.vehiclebooking.service;
+
+import com.vehiclebooking.config.ReadYourWrites;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Monotonic version numbers for the vehicle catalog, one per city plus one for the whole catalog,
+ * used as listing ETags. Reads are a map lookup so a conditional GET can be answered without
+ * touching the database.
+ *
+ * <p>The counters live in the {@code catalog_version} table, which makes them shared across
+ * instances: a bump increments the row and NOTIFYs the new values, and every instance applies
+ * them from {@link VehicleCache}'s listener connection. A periodic reload covers notifications
+ * lost while that connection was down. Versions only move forward, so a late notification can
+ * never roll a counter back.
+ */
+@Slf4j
+@Service
+public class CatalogVersions {
+
+    static final String ALL_CITIES = "*";
+
+    private static final String BUMP_CITY = """
+            INSERT INTO catalog_version (city, version) VALUES (?, 1), ('*', 1)
+            ON CONFLICT (city) DO UPDATE SET version = catalog_version.version + 1
+            RETURNING city, version""";
+    private static final String BUMP_ALL =
+            "UPDATE catalog_version SET version = version + 1 RETURNING city, version";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReadYourWrites readYourWrites;
+    private final String channel;
+    private final boolean relay;
+    private final Map<String, Long> versions = new ConcurrentHashMap<>();
+
+    public CatalogVersions(JdbcTemplate jdbcTemplate,
+                           ReadYourWrites readYourWrites,
+                           @Value("${app.catalog.channel:catalog_version}") String channel,
+                           @Value("${app.cache.vehicles.listen:true}") boolean relay) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readYourWrites = readYourWrites;
+        this.channel = channel;
+        this.relay = relay;
+        reload();
+    }
+
+    /** The NOTIFY channel {@link VehicleCache} should also LISTEN on. */
+    public String channel() {
+        return channel;
+    }
+
+    /** Version of the whole catalog. */
+    public long version() {
+        return versions.getOrDefault(ALL_CITIES, 0L);
+    }
+
+    /** Version of one city's listing; a city that has never changed is at 0 everywhere. */
+    public long version(String city) {
+        return versions.getOrDefault(key(city), 0L);
+    }
+
+    /**
+     * Runs a listing query for {@code city} (null: the whole catalog) on the primary while a
+     * change to it may not have reached the replicas yet.
+     */
+    public <T> T read(String city, Supplier<T> query) {
+        return readYourWrites.read("catalog:" + (city == null ? ALL_CITIES : key(city)), query);
+    }
+
+    /**
+     * Call after a change to {@code city}'s vehicles has committed; null bumps every city. The
+     * whole-catalog version always moves too.
+     */
+    public void bump(String city) {
+        String key = city == null || city.isBlank() ? null : key(city);
+        try {
+            StringBuilder payload = new StringBuilder();
+            jdbcTemplate.query(key == null ? BUMP_ALL : BUMP_CITY, (RowCallbackHandler) rs -> {
+                String bumped = rs.getString(1);
+                long version = rs.getLong(2);
+                apply(bumped, version);
+                payload.append(payload.isEmpty() ? "" : "\n").append(version).append(':').append(bumped);
+            }, key == null ? new Object[0] : new Object[]{key});
+            if (relay && !payload.isEmpty()) {
+                jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class, channel, payload.toString());
+            }
+        } catch (RuntimeException e) {
+            // other instances catch up on the next reload
+            log.warn("Could not bump catalog version for {}: {}", city, e.getMessage());
+        }
+    }
+
+    /** Versions published through NOTIFY by any instance: "version:city" lines. */
+    void onRelayed(String payload) {
+        for (String line : payload.split("\n")) {
+            int colon = line.indexOf(':');
+            if (colon > 0) {
+                apply(line.substring(colon + 1), Long.parseLong(line.substring(0, colon)));
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.catalog.resync-seconds:60}", timeUnit = TimeUnit.SECONDS)
+    public void reload() {
+        try {
+            jdbcTemplate.query("SELECT city, version FROM catalog_version",
+                    (RowCallbackHandler) rs -> apply(rs.getString(1), rs.getLong(2)));
+        } catch (RuntimeException e) {
+            log.warn("Could not reload catalog versions: {}", e.getMessage());
+        }
+    }
+
+    private void apply(String key, long version) {
+        Long previous = versions.get(key);
+        if (versions.merge(key, version, Math::max) > (previous == null ? 0 : previous)) {
+            readYourWrites.record("catalog:" + key);
+        }
+    }
+
+    private static String key(String city) {
+        return city.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,65 @@
+package com.vehiclebooking.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bookings per city over the last hour, kept in lock-free one-minute ring buffers.
+ * Each slot carries the minute it belongs to; a writer that finds a stale slot claims it with a
+ * CAS on the stamp and resets the count, readers only sum slots stamped within the window.
+ * An increment racing that reset can be lost, which a demand signal tolerates.
+ * Counts are per instance, which is enough for a demand signal behind an even load balancer.
+ */
+@Component
+public class DemandCounters {
+
+    private static final int SLOTS = 60;
+    private static final long SLOT_MILLIS = 60_000;
+
+    private final ConcurrentHashMap<String, Ring> byCity = new ConcurrentHashMap<>();
+
+    public void record(String city, long nowMillis) {
+        if (city == null) {
+            return;
+        }
+        byCity.computeIfAbsent(key(city), c -> new Ring()).increment(nowMillis / SLOT_MILLIS);
+    }
+
+    /** Bookings recorded for {@code city} in the last hour; allocation-free for a lower-case name. */
+    public long lastHour(String city, long nowMillis) {
+        Ring ring = city == null ? null : byCity.get(key(city));
+        return ring == null ? 0 : ring.sum(nowMillis / SLOT_MILLIS);
+    }
+
+    // Cities arrive as typed by owners and riders; "Chennai" and "chennai" are one market
+    private static String key(String city) {
+        return city.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Ring {
+        private final AtomicLongArray minutes = new AtomicLongArray(SLOTS);
+        private final AtomicLongArray counts = new AtomicLongArray(SLOTS);
+
+        void increment(long minute) {
+            int slot = (int) (minute % SLOTS);
+            long stamp = minutes.get(slot);
+            if (stamp != minute && minutes.compareAndSet(slot, stamp, minute)) {
+                counts.set(slot, 0);
+            }
+            counts.incrementAndGet(slot);
+        }
+
+        long sum(long minute) {
+            long total = 0;
+            for (int slot = 0; slot < SLOTS; slot++) {
+                if (minute - minutes.get(slot) < SLOTS) {
+                    total += counts.get(slot);
+                }
+            }
+            return total;
+        }
+    }
+}
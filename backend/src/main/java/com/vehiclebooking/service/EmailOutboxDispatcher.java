@@ -0,0 +1,219 @@
+package com.vehiclebooking.service;
+
+import com.vehiclebooking.model.OutboxEmail;
+import com.vehiclebooking.repository.OutboxEmailRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains {@code email_outbox} on a virtual thread.
+ * Each round claims a batch (the lease is {@code nextAttemptAt}), sends the whole batch over
+ * one SMTP connection, then records successes and schedules retries with exponential backoff.
+ */
+@Slf4j
+@Component
+public class EmailOutboxDispatcher {
+
+    private static final Duration CLAIM_LEASE = Duration.ofMinutes(5);
+    private static final Duration MAX_BACKOFF = Duration.ofHours(6);
+    private static final Duration GAUGE_REFRESH = Duration.ofSeconds(30);
+
+    private final OutboxEmailRepository outboxEmailRepository;
+    private final JavaMailSender mailSender;
+    private final TransactionTemplate transactionTemplate;
+    private final Timer sendTimer;
+    private final int batchSize;
+    private final long pollIntervalMillis;
+    private final int maxAttempts;
+    private final Duration backoffBase;
+    // refreshed by drainOnce(), so scrapes never query the database
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile Instant gaugesRefreshedAt = Instant.MIN;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public EmailOutboxDispatcher(OutboxEmailRepository outboxEmailRepository,
+                                 JavaMailSender mailSender,
+                                 TransactionTemplate transactionTemplate,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.mail.outbox.batch-size:50}") int batchSize,
+                                 @Value("${app.mail.outbox.poll-interval-ms:2000}") long pollIntervalMillis,
+                                 @Value("${app.mail.outbox.max-attempts:8}") int maxAttempts,
+                                 @Value("${app.mail.outbox.backoff-base-seconds:30}") long backoffBaseSeconds) {
+        this.outboxEmailRepository = outboxEmailRepository;
+        this.mailSender = mailSender;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.maxAttempts = maxAttempts;
+        this.backoffBase = Duration.ofSeconds(backoffBaseSeconds);
+        this.sendTimer = Timer.builder("email.outbox.send")
+                .description("Time to deliver one outbox batch over SMTP")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("email.outbox.pending", pending, AtomicLong::get)
+                .description("Emails waiting in the outbox")
+                .register(meterRegistry);
+        Gauge.builder("email.outbox.failed", failed, AtomicLong::get)
+                .description("Emails that exhausted their retries")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        worker = Thread.ofVirtual().name("email-outbox").start(this::loop);
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    private void loop() {
+        while (running) {
+            try {
+                int sent = drainOnce();
+                if (sent < batchSize) {
+                    Thread.sleep(pollIntervalMillis);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Email outbox round failed", e);
+                try {
+                    Thread.sleep(pollIntervalMillis);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Claims and sends one batch. Returns the number of emails claimed.
+     */
+    public int drainOnce() {
+        List<OutboxEmail> batch = transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            refreshGauges(now);
+            List<OutboxEmail> due = outboxEmailRepository.lockDue(now, batchSize);
+            for (OutboxEmail email : due) {
+                email.setStatus(OutboxEmail.Status.SENDING);
+                email.setNextAttemptAt(now.plus(CLAIM_LEASE));
+            }
+            return outboxEmailRepository.saveAll(due);
+        });
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<MimeMessage, OutboxEmail> messages = new LinkedHashMap<>();
+        Map<OutboxEmail, String> failures = new HashMap<>();
+        for (OutboxEmail email : batch) {
+            try {
+                messages.put(toMessage(email), email);
+            } catch (MessagingException e) {
+                failures.put(email, e.getMessage());
+            }
+        }
+
+        if (!messages.isEmpty()) {
+            Timer.Sample sample = Timer.start();
+            try {
+                // one send() call means one SMTP connection for the whole batch
+                mailSender.send(messages.keySet().toArray(new MimeMessage[0]));
+            } catch (MailSendException e) {
+                e.getFailedMessages().forEach((message, cause) -> {
+                    OutboxEmail email = messages.get(message);
+                    if (email != null) {
+                        failures.put(email, cause.getMessage());
+                    }
+                });
+                if (e.getFailedMessages().isEmpty()) {
+                    messages.values().forEach(email -> failures.put(email, e.getMessage()));
+                }
+            } catch (MailException e) {
+                messages.values().forEach(email -> failures.put(email, e.getMessage()));
+            } finally {
+                sample.stop(sendTimer);
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Instant now = Instant.now();
+            for (OutboxEmail email : batch) {
+                String error = failures.get(email);
+                if (error == null) {
+                    email.setStatus(OutboxEmail.Status.SENT);
+                    email.setSentAt(now);
+                    email.setLastError(null);
+                } else {
+                    int attempts = email.getAttempts() + 1;
+                    email.setAttempts(attempts);
+                    email.setLastError(error);
+                    if (attempts >= maxAttempts) {
+                        email.setStatus(OutboxEmail.Status.FAILED);
+                        log.warn("Giving up on email {} to {} after {} attempts", email.getId(),
+                                email.getRecipient(), attempts);
+                    } else {
+                        email.setStatus(OutboxEmail.Status.PENDING);
+                        email.setNextAttemptAt(now.plus(backoff(attempts)));
+                    }
+                }
+            }
+            outboxEmailRepository.saveAll(batch);
+        });
+        return batch.size();
+    }
+
+    // The counts scan the table, so they run every GAUGE_REFRESH rather than every poll
+    private void refreshGauges(Instant now) {
+        if (now.isBefore(gaugesRefreshedAt.plus(GAUGE_REFRESH))) {
+            return;
+        }
+        pending.set(outboxEmailRepository.countByStatus(OutboxEmail.Status.PENDING));
+        failed.set(outboxEmailRepository.countByStatus(OutboxEmail.Status.FAILED));
+        gaugesRefreshedAt = now;
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = backoffBase.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : delay;
+    }
+
+    private MimeMessage toMessage(OutboxEmail email) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true);
+        helper.setTo(email.getRecipient());
+        helper.setSubject(email.getSubject());
+        helper.setText(email.getBody(), true); // 'true' means HTML format
+        return message;
+    }
+}
@@ -1,28 +1,35 @@
 package com.vehiclebooking.service;
 
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
+import com.vehiclebooking.repository.OutboxEmailRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Queues notification emails in the {@code email_outbox} table.
+ * Nothing is sent on the caller's thread; {@link EmailOutboxDispatcher} drains the outbox.
+ */
 @Service
 @RequiredArgsConstructor
 public class EmailService {
 
-    private final JavaMailSender mailSender;
+    private final OutboxEmailRepository outboxEmailRepository;
 
+    @Transactional
     public void sendBookingConfirmation(String toEmail, String subject, String body) {
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true);
-            helper.setTo(toEmail);
-            helper.setSubject(subject);
-            helper.setText(body, true); // 'true' means HTML format
-            mailSender.send(message);
-        } catch (MessagingException e) {
-            throw new RuntimeException("Failed to send email", e);
-        }
+        enqueue("adhoc:" + UUID.randomUUID(), toEmail, subject, body);
+    }
+
+    /**
+     * Joins the caller's transaction, so the email is committed (or rolled back) together
+     * with whatever triggered it. A second call with the same dedupKey is a no-op.
+     */
+    @Transactional
+    public void enqueue(String dedupKey, String toEmail, String subject, String body) {
+        // one atomic statement: concurrent calls with the same key cannot both insert
+        outboxEmailRepository.insertIfAbsent(dedupKey, toEmail, subject, body, Instant.now());
     }
 }
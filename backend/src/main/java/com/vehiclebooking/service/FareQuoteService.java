@@ -0,0 +1,114 @@
+package com.vehiclebooking.service;
+
+import com.vehiclebooking.dto.FareQuote;
+import com.vehiclebooking.model.Vehicle;
+import com.vehiclebooking.repository.VehicleRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Computes trip distance server-side from pickup/drop names instead of trusting the client.
+ * Distance is the haversine great-circle distance scaled by a road factor, rounded to 0.1 km,
+ * and memoized per (pickup, drop) in a bounded LRU. Fares come from {@link PricingEngine}.
+ */
+@Service
+public class FareQuoteService {
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private record RouteKey(String pickup, String drop) {}
+
+    private final Gazetteer gazetteer;
+    private final VehicleRepository vehicleRepository;
+    private final PricingEngine pricingEngine;
+    private final double roadFactor;
+    private final Map<RouteKey, Double> distanceCache;
+
+    public FareQuoteService(Gazetteer gazetteer,
+                            VehicleRepository vehicleRepository,
+                            PricingEngine pricingEngine,
+                            @Value("${app.fares.road-factor:1.3}") double roadFactor,
+                            @Value("${app.fares.cache-size:10000}") int cacheSize) {
+        this.gazetteer = gazetteer;
+        this.vehicleRepository = vehicleRepository;
+        this.pricingEngine = pricingEngine;
+        this.roadFactor = roadFactor;
+        this.distanceCache = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<RouteKey, Double> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    public double distanceKm(String pickupLocation, String dropLocation) {
+        RouteKey key = new RouteKey(normalizeKey(pickupLocation), normalizeKey(dropLocation));
+        Double cached = distanceCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        Gazetteer.Coordinates from = gazetteer.lookup(pickupLocation)
+                .orElseThrow(() -> unknownLocation(pickupLocation));
+        Gazetteer.Coordinates to = gazetteer.lookup(dropLocation)
+                .orElseThrow(() -> unknownLocation(dropLocation));
+        double distance = Math.round(haversineKm(from, to) * roadFactor * 10) / 10.0;
+        distanceCache.put(key, distance);
+        return distance;
+    }
+
+    // startTime defaults to now; a missing endTime prices a single trip rather than a rental
+    public FareQuote quote(Vehicle vehicle, double distanceKm, Instant startTime, Instant endTime) {
+        long now = System.currentTimeMillis();
+        long start = startTime == null ? now : startTime.toEpochMilli();
+        long end = endTime == null ? start : endTime.toEpochMilli();
+        return quote(vehicle, distanceKm, start, end, now);
+    }
+
+    private FareQuote quote(Vehicle vehicle, double distanceKm, long start, long end, long now) {
+        double multiplier = pricingEngine.multiplier(vehicle.getType(), vehicle.getCity(), start, now);
+        double total = pricingEngine.fare(vehicle.getType(), vehicle.getRatePerKm(), distanceKm, multiplier, start, end);
+        return new FareQuote(vehicle.getId(), vehicle.getName(), vehicle.getRatePerKm(), distanceKm, multiplier, total);
+    }
+
+    // Prices one trip against many vehicles with a single distance lookup and a single query
+    public List<FareQuote> quoteAll(String pickupLocation, String dropLocation, List<Long> vehicleIds,
+                                    Instant startTime, Instant endTime) {
+        double distance = distanceKm(pickupLocation, dropLocation);
+        long now = System.currentTimeMillis();
+        long start = startTime == null ? now : startTime.toEpochMilli();
+        long end = endTime == null ? start : endTime.toEpochMilli();
+        List<FareQuote> quotes = new ArrayList<>(vehicleIds.size());
+        for (Vehicle vehicle : vehicleRepository.findAllById(vehicleIds)) {
+            quotes.add(quote(vehicle, distance, start, end, now));
+        }
+        quotes.sort(Comparator.comparingDouble(FareQuote::totalCost));
+        return quotes;
+    }
+
+    static double haversineKm(Gazetteer.Coordinates a, Gazetteer.Coordinates b) {
+        return haversineKm(a.latitude(), a.longitude(), b.latitude(), b.longitude());
+    }
+
+    static double haversineKm(double latA, double lonA, double latB, double lonB) {
+        double lat1 = Math.toRadians(latA);
+        double lat2 = Math.toRadians(latB);
+        double dLat = lat2 - lat1;
+        double dLon = Math.toRadians(lonB - lonA);
+        double h = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(lat1) * Math.cos(lat2) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(h)));
+    }
+
+    private static String normalizeKey(String location) {
+        return location == null ? "" : Gazetteer.normalize(location);
+    }
+
+    private static ResponseStatusException unknownLocation(String location) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown location: " + location);
+    }
+}
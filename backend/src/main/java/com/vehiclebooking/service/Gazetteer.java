@@ -0,0 +1,65 @@
+package com.vehiclebooking.service;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Offline place-name lookup backed by the bundled {@code gazetteer.csv}.
+ */
+@Component
+public class Gazetteer {
+
+    public record Coordinates(double latitude, double longitude) {}
+
+    private final Map<String, Coordinates> places = new HashMap<>();
+
+    public Gazetteer() throws IOException {
+        ClassPathResource resource = new ClassPathResource("gazetteer.csv");
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split(",");
+                places.put(normalize(parts[0]),
+                        new Coordinates(Double.parseDouble(parts[1]), Double.parseDouble(parts[2])));
+            }
+        }
+    }
+
+    /**
+     * Resolves a free-text location such as "T. Nagar, Chennai": the whole string first,
+     * then each comma-separated part from most to least specific.
+     */
+    public Optional<Coordinates> lookup(String location) {
+        if (location == null || location.isBlank()) {
+            return Optional.empty();
+        }
+        Coordinates exact = places.get(normalize(location));
+        if (exact != null) {
+            return Optional.of(exact);
+        }
+        for (String part : location.split(",")) {
+            Coordinates match = places.get(normalize(part));
+            if (match != null) {
+                return Optional.of(match);
+            }
+        }
+        return Optional.empty();
+    }
+
+    static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT).replace(".", "").replaceAll("\\s+", " ");
+    }
+}
@@ -0,0 +1,112 @@
+package com.vehiclebooking.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * Uniform latitude/longitude grid of index slots for radius queries. A query only visits the
+ * cells overlapping the search circle's bounding box, so its cost follows the vehicles near the
+ * point rather than the fleet size. Not thread-safe; {@link VehicleSearchService} guards it with
+ * its lock. Boxes are not wrapped across the antimeridian.
+ */
+final class GeoGrid {
+
+    static final double KM_PER_DEGREE_LAT = 111.195;
+
+    private final double cellDegrees;
+    private final Map<Long, Cell> cells = new HashMap<>();
+
+    GeoGrid(double cellDegrees) {
+        this.cellDegrees = cellDegrees;
+    }
+
+    void add(int slot, double lat, double lon) {
+        cells.computeIfAbsent(key(row(lat), col(lon)), k -> new Cell()).add(slot);
+    }
+
+    void remove(int slot, double lat, double lon) {
+        long key = key(row(lat), col(lon));
+        Cell cell = cells.get(key);
+        if (cell != null && cell.remove(slot) && cell.size == 0) {
+            cells.remove(key);
+        }
+    }
+
+    void clear() {
+        cells.clear();
+    }
+
+    /** Feeds every slot in the cells that may hold points within {@code radiusKm}; callers check exact distance. */
+    void forEachNear(double lat, double lon, double radiusKm, IntConsumer action) {
+        double dLat = radiusKm / KM_PER_DEGREE_LAT;
+        // the box is widest on its poleward edge
+        double widestLat = Math.min(89.9, Math.abs(lat) + dLat);
+        double dLon = Math.min(180, dLat / Math.cos(Math.toRadians(widestLat)));
+        int r0 = row(lat - dLat);
+        int r1 = row(lat + dLat);
+        int c0 = col(lon - dLon);
+        int c1 = col(lon + dLon);
+        if ((long) (r1 - r0 + 1) * (c1 - c0 + 1) > cells.size()) {
+            // a huge radius over a sparse grid: scanning the occupied cells is cheaper
+            for (Map.Entry<Long, Cell> entry : cells.entrySet()) {
+                int r = (int) (entry.getKey() >> 32);
+                int c = (int) (long) entry.getKey();
+                if (r >= r0 && r <= r1 && c >= c0 && c <= c1) {
+                    entry.getValue().forEach(action);
+                }
+            }
+            return;
+        }
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                Cell cell = cells.get(key(r, c));
+                if (cell != null) {
+                    cell.forEach(action);
+                }
+            }
+        }
+    }
+
+    private int row(double lat) {
+        return (int) Math.floor((Math.max(-90, Math.min(90, lat)) + 90) / cellDegrees);
+    }
+
+    private int col(double lon) {
+        return (int) Math.floor((Math.max(-180, Math.min(180, lon)) + 180) / cellDegrees);
+    }
+
+    private static long key(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+
+    private static final class Cell {
+        private int[] slots = new int[4];
+        private int size;
+
+        void add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+
+        // order within a cell does not matter, so swap the last slot into the hole
+        boolean remove(int slot) {
+            for (int i = 0; i < size; i++) {
+                if (slots[i] == slot) {
+                    slots[i] = slots[--size];
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void forEach(IntConsumer action) {
+            for (int i = 0; i < size; i++) {
+                action.accept(slots[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.vehiclebooking.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory sliding-window limits for login: attempts per client IP and failed attempts per email.
+ * Uses the sliding window counter approximation (current fixed window plus the weighted previous
+ * one), so each key costs two counters no matter how many attempts it makes. A window is only
+ * read or changed inside {@code compute}/{@code computeIfPresent}, which lock its key, so
+ * {@link #purge()} can never drop a window while an attempt is being counted in it.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private static final class Window {
+        long windowStart;
+        int previous;
+        int current;
+    }
+
+    private final ConcurrentHashMap<String, Window> byIp = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Window> failuresByEmail = new ConcurrentHashMap<>();
+    private final long windowMillis;
+    private final int maxPerIp;
+    private final int maxFailuresPerEmail;
+    private final MeterRegistry meterRegistry;
+
+    public LoginRateLimiter(MeterRegistry meterRegistry,
+                            @Value("${app.security.login.window-seconds:60}") long windowSeconds,
+                            @Value("${app.security.login.max-per-ip:30}") int maxPerIp,
+                            @Value("${app.security.login.max-failures-per-email:5}") int maxFailuresPerEmail) {
+        this.meterRegistry = meterRegistry;
+        this.windowMillis = windowSeconds * 1000;
+        this.maxPerIp = maxPerIp;
+        this.maxFailuresPerEmail = maxFailuresPerEmail;
+    }
+
+    // Counts this attempt against the IP and rejects it if either limit is exhausted
+    public void checkAttempt(String email, String clientIp) {
+        long now = System.currentTimeMillis();
+        if (clientIp != null && record(byIp, clientIp, now) > maxPerIp) {
+            meterRegistry.counter("auth.ratelimit.rejected", "scope", "ip").increment();
+            throw tooMany();
+        }
+        if (email != null && estimate(failuresByEmail, normalize(email), now) >= maxFailuresPerEmail) {
+            meterRegistry.counter("auth.ratelimit.rejected", "scope", "email").increment();
+            throw tooMany();
+        }
+    }
+
+    public void recordFailure(String email) {
+        if (email != null) {
+            record(failuresByEmail, normalize(email), System.currentTimeMillis());
+        }
+    }
+
+    public void recordSuccess(String email) {
+        if (email != null) {
+            failuresByEmail.remove(normalize(email));
+        }
+    }
+
+    // Drop keys idle for two windows so the maps only hold recently active clients
+    @Scheduled(fixedDelayString = "${app.security.login.window-seconds:60}", timeUnit = TimeUnit.SECONDS)
+    public void purge() {
+        long cutoff = System.currentTimeMillis() - 2 * windowMillis;
+        purge(byIp, cutoff);
+        purge(failuresByEmail, cutoff);
+    }
+
+    // Staleness is re-checked under the key's lock: a window counted into meanwhile stays
+    private static void purge(ConcurrentHashMap<String, Window> windows, long cutoff) {
+        windows.keySet().forEach(key -> windows.computeIfPresent(key, (k, w) -> w.windowStart < cutoff ? null : w));
+    }
+
+    private double record(ConcurrentHashMap<String, Window> windows, String key, long now) {
+        double[] estimate = new double[1];
+        windows.compute(key, (k, w) -> {
+            Window window = w != null ? w : new Window();
+            roll(window, now);
+            window.current++;
+            estimate[0] = weighted(window, now);
+            return window;
+        });
+        return estimate[0];
+    }
+
+    private double estimate(ConcurrentHashMap<String, Window> windows, String key, long now) {
+        double[] estimate = new double[1];
+        windows.computeIfPresent(key, (k, w) -> {
+            roll(w, now);
+            estimate[0] = weighted(w, now);
+            return w;
+        });
+        return estimate[0];
+    }
+
+    private void roll(Window w, long now) {
+        long start = now - (now % windowMillis);
+        if (w.windowStart == start) {
+            return;
+        }
+        w.previous = w.windowStart == start - windowMillis ? w.current : 0;
+        w.current = 0;
+        w.windowStart = start;
+    }
+
+    private double weighted(Window w, long now) {
+        double elapsed = (double) (now - w.windowStart) / windowMillis;
+        return w.previous * (1 - elapsed) + w.current;
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static ResponseStatusException tooMany() {
+        return new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many login attempts, try again later");
+    }
+}
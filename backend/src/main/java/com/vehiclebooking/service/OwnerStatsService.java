@@ -0,0 +1,117 @@
+package com.vehiclebooking.service;
+
+import com.vehiclebooking.dto.OwnerStats;
+import com.vehiclebooking.dto.VehicleSummary;
+import com.vehiclebooking.model.Booking;
+import com.vehiclebooking.model.Vehicle;
+import com.vehiclebooking.repository.VehicleRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains {@code vehicle_daily_rollup}, one row per vehicle per booking start day, and serves
+ * the owner dashboard from it. The record* methods must run inside the transaction that commits
+ * the booking change, so rollups and bookings never disagree. Bookings without a time window are
+ * left out of the rollups.
+ */
+@Service
+@RequiredArgsConstructor
+public class OwnerStatsService {
+
+    public static final int MAX_DAYS = 366;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final VehicleRepository vehicleRepository;
+
+    private record RollupRow(long bookings, long paidBookings, double revenue, double paidRevenue, long bookedMinutes) {}
+
+    public void recordBooking(Booking booking, Vehicle vehicle) {
+        if (!hasWindow(booking)) {
+            return;
+        }
+        long minutes = Duration.between(booking.getStartTime(), booking.getEndTime()).toMinutes();
+        jdbcTemplate.update("""
+                INSERT INTO vehicle_daily_rollup
+                    (vehicle_id, day, owner_email, bookings, paid_bookings, revenue, paid_revenue, booked_minutes)
+                VALUES (?, ?, ?, 1, 0, ?, 0, ?)
+                ON CONFLICT (vehicle_id, day) DO UPDATE SET
+                    bookings = vehicle_daily_rollup.bookings + 1,
+                    revenue = vehicle_daily_rollup.revenue + EXCLUDED.revenue,
+                    booked_minutes = vehicle_daily_rollup.booked_minutes + EXCLUDED.booked_minutes
+                """,
+                vehicle.getId(), dayOf(booking), vehicle.getOwnerEmail(), booking.getTotalCost(), minutes);
+    }
+
+    public void recordPayment(Booking booking) {
+        if (!hasWindow(booking)) {
+            return;
+        }
+        jdbcTemplate.update("""
+                UPDATE vehicle_daily_rollup
+                SET paid_bookings = paid_bookings + 1, paid_revenue = paid_revenue + ?
+                WHERE vehicle_id = ? AND day = ?
+                """,
+                booking.getTotalCost(), booking.getVehicleId(), dayOf(booking));
+    }
+
+    // O(owner's vehicles x days) regardless of how many bookings exist system-wide
+    public OwnerStats getStats(String ownerEmail, int days) {
+        int period = Math.min(Math.max(days, 1), MAX_DAYS);
+        LocalDate to = LocalDate.now(ZoneOffset.UTC);
+        LocalDate from = to.minusDays(period - 1);
+
+        Map<Long, RollupRow> rollups = new HashMap<>();
+        jdbcTemplate.query("""
+                SELECT vehicle_id, SUM(bookings) AS bookings, SUM(paid_bookings) AS paid_bookings,
+                       SUM(revenue) AS revenue, SUM(paid_revenue) AS paid_revenue,
+                       SUM(booked_minutes) AS booked_minutes
+                FROM vehicle_daily_rollup
+                WHERE owner_email = ? AND day BETWEEN ? AND ?
+                GROUP BY vehicle_id
+                """,
+                rs -> {
+                    rollups.put(rs.getLong("vehicle_id"), new RollupRow(rs.getLong("bookings"),
+                            rs.getLong("paid_bookings"), rs.getDouble("revenue"), rs.getDouble("paid_revenue"),
+                            rs.getLong("booked_minutes")));
+                },
+                ownerEmail, Date.valueOf(from), Date.valueOf(to));
+
+        double periodMinutes = period * 24.0 * 60.0;
+        long bookings = 0;
+        long paidBookings = 0;
+        double revenue = 0;
+        double paidRevenue = 0;
+        List<OwnerStats.VehicleStats> perVehicle = new ArrayList<>();
+        for (VehicleSummary vehicle : vehicleRepository.findSummariesByOwnerEmail(ownerEmail)) {
+            RollupRow row = rollups.getOrDefault(vehicle.id(), new RollupRow(0, 0, 0, 0, 0));
+            bookings += row.bookings();
+            paidBookings += row.paidBookings();
+            revenue += row.revenue();
+            paidRevenue += row.paidRevenue();
+            perVehicle.add(new OwnerStats.VehicleStats(vehicle.id(), vehicle.name(), row.bookings(),
+                    row.paidBookings(), row.revenue(), row.paidRevenue(),
+                    Math.min(1.0, row.bookedMinutes() / periodMinutes)));
+        }
+        return new OwnerStats(period, bookings, paidBookings, bookings - paidBookings,
+                revenue, paidRevenue, revenue - paidRevenue, perVehicle);
+    }
+
+    // Legacy bookings made before time windows existed have no start day to roll up under
+    private static boolean hasWindow(Booking booking) {
+        return booking.getStartTime() != null && booking.getEndTime() != null;
+    }
+
+    private static Date dayOf(Booking booking) {
+        return Date.valueOf(LocalDate.ofInstant(booking.getStartTime(), ZoneOffset.UTC));
+    }
+}
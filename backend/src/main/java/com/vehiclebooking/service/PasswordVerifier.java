@@ -0,0 +1,103 @@
+package com.vehiclebooking.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Bulkhead around password hashing. At most {@code permits} hashes run at once (default: half
+ * the cores) and at most {@code max-queue} callers wait; anyone beyond that, or anyone who waits
+ * longer than {@code max-wait-ms}, gets a fast 503 instead of starving booking traffic of CPU.
+ */
+@Component
+public class PasswordVerifier {
+
+    private final PasswordEncoder passwordEncoder;
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final int maxQueue;
+    private final long maxWaitMillis;
+    private final Timer queueTimer;
+    private final Timer hashTimer;
+    private final Counter rejected;
+
+    public PasswordVerifier(PasswordEncoder passwordEncoder,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.security.password.permits:0}") int configuredPermits,
+                            @Value("${app.security.password.max-queue:100}") int maxQueue,
+                            @Value("${app.security.password.max-wait-ms:2000}") long maxWaitMillis) {
+        this.passwordEncoder = passwordEncoder;
+        int permitCount = configuredPermits > 0
+                ? configuredPermits
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.permits = new Semaphore(permitCount, true);
+        this.maxQueue = maxQueue;
+        this.maxWaitMillis = maxWaitMillis;
+        this.queueTimer = Timer.builder("auth.password.queue")
+                .description("Time spent waiting for a password hashing slot")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.hashTimer = Timer.builder("auth.password.hash")
+                .description("Time spent hashing or verifying a password")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejected = Counter.builder("auth.password.rejected")
+                .description("Password checks rejected because the pool was saturated")
+                .register(meterRegistry);
+        meterRegistry.gauge("auth.password.waiting", waiting);
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return run(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    public String encode(String rawPassword) {
+        return run(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    public boolean needsUpgrade(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T run(Supplier<T> work) {
+        if (waiting.incrementAndGet() > maxQueue) {
+            waiting.decrementAndGet();
+            rejected.increment();
+            throw busy();
+        }
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw busy();
+        } finally {
+            waiting.decrementAndGet();
+            queueTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (!acquired) {
+            rejected.increment();
+            throw busy();
+        }
+        try {
+            return hashTimer.record(work);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static ResponseStatusException busy() {
+        return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many login attempts in progress, retry shortly");
+    }
+}
@@ -0,0 +1,72 @@
+package com.vehiclebooking.service;
+
+import com.vehiclebooking.model.Booking;
+import com.vehiclebooking.model.Payment;
+import com.vehiclebooking.repository.BookingRepository;
+import com.vehiclebooking.repository.PaymentRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Accepts payment requests. A request only records an INITIATED payment; the gateway is called
+ * later by {@link PaymentSettlementWorker}, so a slow processor never holds up the HTTP request.
+ *
+ * <p>Retrying with the same Idempotency-Key returns the original payment, and a booking never
+ * has more than one live payment whatever keys the client sends.
+ */
+@Service
+@RequiredArgsConstructor
+public class PaymentService {
+
+    private final PaymentRepository paymentRepository;
+    private final BookingRepository bookingRepository;
+
+    @Transactional
+    public Payment requestPayment(Long bookingId, String idempotencyKey) {
+        Optional<Payment> replay = paymentRepository.findByIdempotencyKey(idempotencyKey);
+        if (replay.isPresent()) {
+            return sameBooking(replay.get(), bookingId);
+        }
+        Booking booking = bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Booking not found: " + bookingId));
+        if (!booking.isConfirmed()) {
+            throw new BookingConflictException("Booking " + bookingId + " is not confirmed");
+        }
+        if (booking.getStartTime() == null || booking.getEndTime() == null) {
+            // legacy bookings without a window can't be priced or rolled up; rebook instead
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Booking " + bookingId + " has no start and end time");
+        }
+        Optional<Payment> live = paymentRepository.findFirstByBookingIdAndStatusNot(bookingId, Payment.Status.FAILED);
+        if (live.isPresent()) {
+            return live.get();
+        }
+        if (booking.isPaid()) {
+            throw new BookingConflictException("Booking " + bookingId + " is already paid");
+        }
+        paymentRepository.insertIfAbsent(bookingId, idempotencyKey, booking.getTotalCost(), Instant.now());
+        // inserted, or a concurrent request with the same key / for the same booking got there first
+        return paymentRepository.findByIdempotencyKey(idempotencyKey)
+                .map(payment -> sameBooking(payment, bookingId))
+                .or(() -> paymentRepository.findFirstByBookingIdAndStatusNot(bookingId, Payment.Status.FAILED))
+                .orElseThrow();
+    }
+
+    public Optional<Payment> getLatestPayment(Long bookingId) {
+        return paymentRepository.findFirstByBookingIdOrderByIdDesc(bookingId);
+    }
+
+    private static Payment sameBooking(Payment payment, Long bookingId) {
+        if (!payment.getBookingId().equals(bookingId)) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key was already used for another booking");
+        }
+        return payment;
+    }
+}
@@ -0,0 +1,242 @@
+package com.vehiclebooking.service;
+
+import com.vehiclebooking.model.Payment;
+import com.vehiclebooking.payment.PaymentDeclinedException;
+import com.vehiclebooking.payment.PaymentGateway;
+import com.vehiclebooking.repository.BookingRepository;
+import com.vehiclebooking.repository.PaymentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+/**
+ * Moves payments through the gateway on a virtual thread:
+ * INITIATED -(authorize)-> AUTHORIZED -(capture)-> CAPTURED -(mark booking paid)-> SETTLED, or
+ * FAILED on a decline, or after {@code max-attempts} transient errors (retried with exponential
+ * backoff) while still INITIATED. Once AUTHORIZED the customer may already have been charged (a
+ * capture that timed out can still have gone through), so transient errors are retried for as
+ * long as it takes and never fail the payment; re-capturing is safe because capture is
+ * idempotent. A CAPTURED payment has been charged: only the settlement step is retried.
+ *
+ * <p>Each round claims due payments with SKIP LOCKED (the lease is {@code nextAttemptAt}) and
+ * calls the gateway for each on its own virtual thread. Every transition is a conditional UPDATE,
+ * so a worker that lost its lease cannot overwrite a newer state, and the booking is marked paid
+ * in the same transaction as the settlement.
+ */
+@Slf4j
+@Component
+public class PaymentSettlementWorker {
+
+    private static final Duration CLAIM_LEASE = Duration.ofMinutes(2);
+    private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+    private static final Duration GAUGE_REFRESH = Duration.ofSeconds(30);
+    private static final List<Payment.Status> UNSETTLED =
+            List.of(Payment.Status.INITIATED, Payment.Status.AUTHORIZED, Payment.Status.CAPTURED);
+
+    private final PaymentRepository paymentRepository;
+    private final BookingRepository bookingRepository;
+    private final OwnerStatsService ownerStatsService;
+    private final PaymentGateway gateway;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter settled;
+    private final Counter failed;
+    private final Counter retried;
+    // refreshed by settleOnce(), so scrapes never query the database
+    private final AtomicLong pending = new AtomicLong();
+    private volatile Instant gaugeRefreshedAt = Instant.MIN;
+    private final int batchSize;
+    private final long pollIntervalMillis;
+    private final int maxAttempts;
+    private final Duration backoffBase;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public PaymentSettlementWorker(PaymentRepository paymentRepository,
+                                   BookingRepository bookingRepository,
+                                   OwnerStatsService ownerStatsService,
+                                   PaymentGateway gateway,
+                                   TransactionTemplate transactionTemplate,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.payments.batch-size:50}") int batchSize,
+                                   @Value("${app.payments.poll-interval-ms:1000}") long pollIntervalMillis,
+                                   @Value("${app.payments.max-attempts:6}") int maxAttempts,
+                                   @Value("${app.payments.backoff-base-seconds:10}") long backoffBaseSeconds) {
+        this.paymentRepository = paymentRepository;
+        this.bookingRepository = bookingRepository;
+        this.ownerStatsService = ownerStatsService;
+        this.gateway = gateway;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.maxAttempts = maxAttempts;
+        this.backoffBase = Duration.ofSeconds(backoffBaseSeconds);
+        this.settled = meterRegistry.counter("payments.processed", "outcome", "settled");
+        this.failed = meterRegistry.counter("payments.processed", "outcome", "failed");
+        this.retried = meterRegistry.counter("payments.processed", "outcome", "retried");
+        Gauge.builder("payments.pending", pending, AtomicLong::get)
+                .description("Payments waiting for authorization, capture or settlement")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        worker = Thread.ofVirtual().name("payment-settlement").start(this::loop);
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    private void loop() {
+        while (running) {
+            try {
+                int claimed = settleOnce();
+                if (claimed < batchSize) {
+                    Thread.sleep(pollIntervalMillis);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Payment settlement round failed", e);
+                try {
+                    Thread.sleep(pollIntervalMillis);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Claims and processes one batch. Returns the number of payments claimed.
+     */
+    public int settleOnce() {
+        List<Payment> batch = transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            refreshGauge(now);
+            List<Payment> due = paymentRepository.lockDue(now, batchSize);
+            if (!due.isEmpty()) {
+                paymentRepository.lease(due.stream().map(Payment::getId).toList(), now.plus(CLAIM_LEASE));
+            }
+            return due;
+        });
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+        // gateway calls are network-bound: one virtual thread each, joined before the next round
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Payment payment : batch) {
+                executor.submit(() -> process(payment));
+            }
+        }
+        return batch.size();
+    }
+
+    private void process(Payment payment) {
+        Payment.Status state = payment.getStatus();
+        try {
+            String ref = payment.getGatewayRef();
+            if (state == Payment.Status.INITIATED) {
+                ref = gateway.authorize(payment.getIdempotencyKey(), payment.getAmount());
+                String authorization = ref;
+                if (!updated(() -> paymentRepository.markAuthorized(payment.getId(), authorization, Instant.now()))) {
+                    return; // moved on by someone else since we claimed it
+                }
+                state = Payment.Status.AUTHORIZED;
+            }
+            if (state == Payment.Status.AUTHORIZED) {
+                gateway.capture(ref, payment.getAmount());
+                // charged from here on, even if recording it fails: nothing below may fail the payment
+                state = Payment.Status.CAPTURED;
+                if (!updated(() -> paymentRepository.markCaptured(payment.getId(), Instant.now()))) {
+                    return;
+                }
+            }
+            settle(payment);
+        } catch (PaymentDeclinedException e) {
+            if (updated(() -> paymentRepository.markFailed(payment.getId(), e.getMessage(), Instant.now()))) {
+                failed.increment();
+                log.info("Payment {} for booking {} declined: {}", payment.getId(), payment.getBookingId(), e.getMessage());
+            }
+        } catch (RuntimeException e) {
+            retryOrFail(payment, state, e);
+        }
+    }
+
+    private void settle(Payment payment) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (paymentRepository.markSettled(payment.getId(), Instant.now()) == 0) {
+                return;
+            }
+            settled.increment();
+            if (bookingRepository.markPaid(payment.getBookingId()) == 1) {
+                bookingRepository.findById(payment.getBookingId()).ifPresent(ownerStatsService::recordPayment);
+            }
+        });
+    }
+
+    private void retryOrFail(Payment payment, Payment.Status state, RuntimeException error) {
+        int attempts = payment.getAttempts() + 1;
+        Instant now = Instant.now();
+        // the customer has (or may have) paid: failing now would leave them charged for an unpaid booking
+        boolean mayBeCharged = state == Payment.Status.AUTHORIZED || state == Payment.Status.CAPTURED;
+        if (state == Payment.Status.CAPTURED) {
+            log.error("Settling captured payment {} for booking {} failed (attempt {}), retrying",
+                    payment.getId(), payment.getBookingId(), attempts, error);
+        } else if (state == Payment.Status.AUTHORIZED && attempts >= maxAttempts) {
+            log.error("Capturing payment {} for booking {} failed (attempt {}), retrying",
+                    payment.getId(), payment.getBookingId(), attempts, error);
+        }
+        if (attempts >= maxAttempts && !mayBeCharged) {
+            String reason = "Gave up after " + attempts + " attempts: " + error.getMessage();
+            if (updated(() -> paymentRepository.markFailed(payment.getId(), reason, now))) {
+                failed.increment();
+                log.warn("Payment {} for booking {} failed: {}", payment.getId(), payment.getBookingId(), reason);
+            }
+        } else if (updated(() -> paymentRepository.scheduleRetry(payment.getId(), state, error.getMessage(),
+                now.plus(backoff(attempts)), now))) {
+            retried.increment();
+        }
+    }
+
+    // One COUNT, and only every GAUGE_REFRESH rather than every poll
+    private void refreshGauge(Instant now) {
+        if (now.isBefore(gaugeRefreshedAt.plus(GAUGE_REFRESH))) {
+            return;
+        }
+        pending.set(paymentRepository.countByStatusIn(UNSETTLED));
+        gaugeRefreshedAt = now;
+    }
+
+    private boolean updated(IntSupplier update) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> update.getAsInt() == 1));
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = backoffBase.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : delay;
+    }
+}
@@ -0,0 +1,270 @@
+package com.vehiclebooking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.DayOfWeek;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prices trips from {@link PricingRules}: per-type multipliers and minimum fares, peak/off-peak
+ * time windows, surge from recent bookings in the vehicle's city, and per-day rates for
+ * multi-day rentals.
+ *
+ * <p>Rules are compiled into flat arrays (one slot per hour of the week, per type, per surge
+ * step) and swapped in atomically, so evaluation is a handful of array reads with no locks and
+ * no allocation. The rules file is re-read when its modification time changes; a file that does
+ * not compile is logged and the previous table stays in force.
+ */
+@Slf4j
+@Service
+public class PricingEngine {
+
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+    private static final int SECONDS_PER_DAY = 86_400;
+
+    private final ObjectMapper objectMapper;
+    private final DemandCounters demandCounters;
+    private final Resource rulesResource;
+    private final int offsetSeconds;
+
+    private volatile Table table;
+    private volatile long loadedModified;
+
+    public PricingEngine(ObjectMapper objectMapper,
+                         DemandCounters demandCounters,
+                         ResourceLoader resourceLoader,
+                         @Value("${app.pricing.rules:classpath:pricing-rules.json}") String rulesLocation,
+                         @Value("${app.pricing.utc-offset:+05:30}") String utcOffset) throws IOException {
+        this.objectMapper = objectMapper;
+        this.demandCounters = demandCounters;
+        this.rulesResource = resourceLoader.getResource(rulesLocation);
+        this.offsetSeconds = ZoneOffset.of(utcOffset).getTotalSeconds();
+        this.loadedModified = lastModified();
+        // a broken rules file at startup is fatal; later ones are only logged
+        this.table = compile(load());
+    }
+
+    // ------------------- EVALUATION ------------------------
+
+    /**
+     * Combined type, time-of-week and surge multiplier for a trip starting at {@code startMillis}.
+     */
+    public double multiplier(String type, String city, long startMillis, long nowMillis) {
+        Table t = table;
+        return t.typeMultiplier[t.typeIndex(type)]
+                * t.hourOfWeek[hourOfWeek(startMillis)]
+                * t.surge(demandCounters.lastHour(city, nowMillis));
+    }
+
+    /**
+     * Total fare, rounded to paise: the distance fare with {@code multiplier} applied, never below
+     * the type's minimum, and for long rentals never below the discounted per-day rate.
+     */
+    public double fare(String type, double ratePerKm, double distanceKm, double multiplier,
+                       long startMillis, long endMillis) {
+        Table t = table;
+        int typeIndex = t.typeIndex(type);
+        double fare = Math.max(distanceKm * ratePerKm * multiplier, t.minimumFare[typeIndex]);
+        long duration = endMillis - startMillis;
+        if (t.multiDayMinMillis > 0 && duration >= t.multiDayMinMillis) {
+            long days = (duration + DAY_MILLIS - 1) / DAY_MILLIS;
+            fare = Math.max(fare, days * t.dayRate[typeIndex] * (1 - t.discount(days)));
+        }
+        return Math.round(fare * 100) / 100.0;
+    }
+
+    /** Feeds the surge signal; call once a booking has committed. */
+    public void recordBooking(String city) {
+        demandCounters.record(city, System.currentTimeMillis());
+    }
+
+    // Monday 00:00 local = 0 ... Sunday 23:00 = 167; epoch day 0 was a Thursday
+    private int hourOfWeek(long epochMillis) {
+        long local = Math.floorDiv(epochMillis, 1000L) + offsetSeconds;
+        long day = Math.floorDiv(local, SECONDS_PER_DAY);
+        int dayOfWeek = (int) Math.floorMod(day + 3, 7L);
+        int hour = (int) (Math.floorMod(local, SECONDS_PER_DAY) / 3600);
+        return dayOfWeek * 24 + hour;
+    }
+
+    // ------------------- HOT RELOAD ------------------------
+
+    @Scheduled(fixedDelayString = "${app.pricing.reload-seconds:15}", timeUnit = TimeUnit.SECONDS)
+    public void reloadIfChanged() {
+        long modified = lastModified();
+        if (modified == loadedModified) {
+            return;
+        }
+        loadedModified = modified; // a bad edit is reported once, not every poll
+        try {
+            table = compile(load());
+            log.info("Reloaded pricing rules from {}", rulesResource.getDescription());
+        } catch (IOException | RuntimeException e) {
+            log.error("Ignoring invalid pricing rules in {}; keeping the previous rules",
+                    rulesResource.getDescription(), e);
+        }
+    }
+
+    private long lastModified() {
+        try {
+            return rulesResource.lastModified();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private PricingRules load() throws IOException {
+        try (InputStream in = rulesResource.getInputStream()) {
+            return objectMapper.readValue(in, PricingRules.class);
+        }
+    }
+
+    // ------------------- COMPILATION ------------------------
+
+    static Table compile(PricingRules rules) {
+        Map<String, PricingRules.TypeRule> types = rules.types() == null ? Map.of() : rules.types();
+        if (rules.defaultType() == null) {
+            throw new IllegalArgumentException("defaultType is required");
+        }
+        int n = types.size();
+        String[] names = new String[n];
+        double[] multipliers = new double[n + 1];
+        double[] minimums = new double[n + 1];
+        double[] dayRates = new double[n + 1];
+        int i = 0;
+        for (Map.Entry<String, PricingRules.TypeRule> entry : types.entrySet()) {
+            names[i] = entry.getKey();
+            setType(i++, entry.getKey(), entry.getValue(), multipliers, minimums, dayRates);
+        }
+        setType(n, "defaultType", rules.defaultType(), multipliers, minimums, dayRates);
+
+        double[] hourOfWeek = new double[7 * 24];
+        Arrays.fill(hourOfWeek, 1.0);
+        for (PricingRules.TimeWindow window : rules.timeWindows() == null ? List.<PricingRules.TimeWindow>of() : rules.timeWindows()) {
+            if (window.fromHour() < 0 || window.fromHour() > 23 || window.toHour() < 0 || window.toHour() > 24) {
+                throw new IllegalArgumentException("Time window hours must be within 0..24: " + window);
+            }
+            positive(window.multiplier(), "time window multiplier");
+            List<DayOfWeek> days = window.days() == null || window.days().isEmpty()
+                    ? List.of(DayOfWeek.values()) : window.days();
+            for (DayOfWeek day : days) {
+                int base = (day.getValue() - 1) * 24;
+                int hour = window.fromHour();
+                do {
+                    hourOfWeek[base + hour] = window.multiplier();
+                    hour = (hour + 1) % 24;
+                    if (hour == 0) {
+                        // an overnight window runs into the next day (Sunday into Monday)
+                        base = (base + 24) % hourOfWeek.length;
+                    }
+                } while (hour != window.toHour() % 24);
+            }
+        }
+
+        List<PricingRules.SurgeStep> steps = new ArrayList<>();
+        double cap = Double.MAX_VALUE;
+        if (rules.surge() != null) {
+            if (rules.surge().steps() != null) {
+                steps.addAll(rules.surge().steps());
+            }
+            if (rules.surge().cap() > 0) {
+                cap = rules.surge().cap();
+            }
+        }
+        steps.sort(Comparator.comparingInt(PricingRules.SurgeStep::bookingsPerHour));
+        int[] thresholds = new int[steps.size()];
+        double[] surges = new double[steps.size()];
+        for (int s = 0; s < steps.size(); s++) {
+            thresholds[s] = steps.get(s).bookingsPerHour();
+            surges[s] = positive(steps.get(s).multiplier(), "surge multiplier");
+        }
+
+        long multiDayMinMillis = 0;
+        List<PricingRules.DayDiscount> discounts = new ArrayList<>();
+        if (rules.multiDay() != null) {
+            multiDayMinMillis = TimeUnit.HOURS.toMillis(Math.max(rules.multiDay().minHours(), 1));
+            if (rules.multiDay().discounts() != null) {
+                discounts.addAll(rules.multiDay().discounts());
+            }
+        }
+        discounts.sort(Comparator.comparingInt(PricingRules.DayDiscount::days));
+        int[] discountDays = new int[discounts.size()];
+        double[] discountRates = new double[discounts.size()];
+        for (int d = 0; d < discounts.size(); d++) {
+            double rate = discounts.get(d).discount();
+            if (rate < 0 || rate >= 1) {
+                throw new IllegalArgumentException("Multi-day discount must be within [0, 1): " + rate);
+            }
+            discountDays[d] = discounts.get(d).days();
+            discountRates[d] = rate;
+        }
+
+        return new Table(names, multipliers, minimums, dayRates, hourOfWeek, thresholds, surges, cap,
+                multiDayMinMillis, discountDays, discountRates);
+    }
+
+    private static void setType(int index, String name, PricingRules.TypeRule rule,
+                                double[] multipliers, double[] minimums, double[] dayRates) {
+        multipliers[index] = positive(rule.multiplier(), name + " multiplier");
+        if (rule.minimumFare() < 0 || rule.dayRate() < 0) {
+            throw new IllegalArgumentException(name + " fares must not be negative");
+        }
+        minimums[index] = rule.minimumFare();
+        dayRates[index] = rule.dayRate();
+    }
+
+    private static double positive(double value, String what) {
+        if (!(value > 0)) {
+            throw new IllegalArgumentException(what + " must be positive: " + value);
+        }
+        return value;
+    }
+
+    /** Compiled, immutable rules; index {@code typeNames.length} holds the default type. */
+    record Table(String[] typeNames, double[] typeMultiplier, double[] minimumFare, double[] dayRate,
+                 double[] hourOfWeek, int[] surgeThresholds, double[] surgeMultipliers, double surgeCap,
+                 long multiDayMinMillis, int[] discountDays, double[] discounts) {
+
+        // a linear equalsIgnoreCase scan over a handful of types beats hashing a lower-cased copy
+        int typeIndex(String type) {
+            if (type != null) {
+                for (int i = 0; i < typeNames.length; i++) {
+                    if (typeNames[i].equalsIgnoreCase(type)) {
+                        return i;
+                    }
+                }
+            }
+            return typeNames.length;
+        }
+
+        double surge(long bookingsLastHour) {
+            double multiplier = 1.0;
+            for (int i = 0; i < surgeThresholds.length && bookingsLastHour >= surgeThresholds[i]; i++) {
+                multiplier = surgeMultipliers[i];
+            }
+            return Math.min(multiplier, surgeCap);
+        }
+
+        double discount(long days) {
+            double discount = 0;
+            for (int i = 0; i < discountDays.length && days >= discountDays[i]; i++) {
+                discount = discounts[i];
+            }
+            return discount;
+        }
+    }
+}
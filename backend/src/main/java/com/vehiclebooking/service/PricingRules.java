@@ -0,0 +1,35 @@
+package com.vehiclebooking.service;
+
+import java.time.DayOfWeek;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pricing rules as written in {@code pricing-rules.json}; {@link PricingEngine} compiles them
+ * into lookup tables and never reads this form while pricing.
+ */
+public record PricingRules(Map<String, TypeRule> types,
+                           TypeRule defaultType,
+                           List<TimeWindow> timeWindows,
+                           Surge surge,
+                           MultiDay multiDay) {
+
+    /** Per vehicle type: rate multiplier, floor for any trip, and the per-day rental rate. */
+    public record TypeRule(double multiplier, double minimumFare, double dayRate) {}
+
+    /**
+     * Multiplier for trips starting in [fromHour, toHour) local time; wraps past midnight into the
+     * following day when toHour &lt;= fromHour. No days means every day. Later windows win where they overlap.
+     */
+    public record TimeWindow(List<DayOfWeek> days, int fromHour, int toHour, double multiplier) {}
+
+    /** Steps by bookings in the vehicle's city over the last hour; the highest step reached applies. */
+    public record Surge(List<SurgeStep> steps, double cap) {}
+
+    public record SurgeStep(int bookingsPerHour, double multiplier) {}
+
+    /** Rentals of at least minHours are also priced per day, with the largest discount reached. */
+    public record MultiDay(int minHours, List<DayDiscount> discounts) {}
+
+    public record DayDiscount(int days, double discount) {}
+}
@@ -0,0 +1,310 @@
+package com.vehiclebooking.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vehiclebooking.dto.ImportReport;
+import com.vehiclebooking.dto.VehicleSummary;
+import com.vehiclebooking.model.Vehicle;
+import com.vehiclebooking.repository.VehicleRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Streaming bulk import/export of an owner's fleet as CSV or NDJSON.
+ * Import parses one line at a time and commits every {@link #BATCH_SIZE} valid rows as one
+ * JDBC batch; a bad row is reported and skipped without failing the job. A batch the database
+ * rejects is replayed row by row so only the offending rows are reported.
+ */
+@Service
+@RequiredArgsConstructor
+public class VehicleBulkService {
+
+    public enum Format { CSV, NDJSON }
+
+    // keep in step with hibernate.jdbc.batch_size and the vehicles_seq allocationSize
+    private static final int BATCH_SIZE = 50;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final List<String> CSV_COLUMNS =
+            List.of("name", "type", "city", "capacity", "ratePerKm", "available", "latitude", "longitude");
+
+    private final VehicleRepository vehicleRepository;
+    private final VehicleSearchService vehicleSearchService;
+    private final VehicleCache vehicleCache;
+    private final CatalogVersions catalogVersions;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    // ------------------- IMPORT ------------------------
+
+    public ImportReport importVehicles(InputStream in, Format format, String ownerEmail) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        List<Vehicle> batch = new ArrayList<>(BATCH_SIZE);
+        List<Long> batchLines = new ArrayList<>(BATCH_SIZE);
+        List<ImportReport.RowError> errors = new ArrayList<>();
+        long imported = 0;
+        long rows = 0;
+        long lineNo = 0;
+
+        Map<String, Integer> header = null;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNo++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == Format.CSV && header == null) {
+                header = parseHeader(line);
+                continue;
+            }
+            rows++;
+            try {
+                Vehicle vehicle = format == Format.CSV ? fromCsv(line, header) : fromJson(line);
+                vehicle.setOwnerEmail(ownerEmail);
+                validate(vehicle);
+                batch.add(vehicle);
+                batchLines.add(lineNo);
+            } catch (IllegalArgumentException | IOException e) {
+                reject(errors, lineNo, e.getMessage());
+            }
+            if (batch.size() == BATCH_SIZE) {
+                imported += flush(batch, batchLines, tx, errors);
+            }
+        }
+        imported += flush(batch, batchLines, tx, errors);
+        // every other row was rejected, by validation or by the database
+        return new ImportReport(imported, rows - imported, errors);
+    }
+
+    // Returns the number of rows saved; rows the database rejected are added to errors
+    private int flush(List<Vehicle> batch, List<Long> lines, TransactionTemplate tx,
+                      List<ImportReport.RowError> errors) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<Vehicle> saved;
+        try {
+            saved = tx.execute(status -> save(batch));
+        } catch (DataAccessException e) {
+            // one bad row rolled back the whole batch: replay it row by row to find it
+            saved = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                Vehicle vehicle = batch.get(i);
+                vehicle.setId(null); // assigned by the rolled-back attempt
+                try {
+                    saved.addAll(tx.execute(status -> save(List.of(vehicle))));
+                } catch (DataAccessException rowError) {
+                    reject(errors, lines.get(i), rowError.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+        Set<String> cities = new HashSet<>();
+        for (Vehicle vehicle : saved) {
+            vehicleSearchService.index(vehicle);
+            cities.add(vehicle.getCity());
+        }
+        // one NOTIFY and one bump per city per batch, not per row
+        vehicleCache.vehiclesChanged(saved);
+        cities.forEach(catalogVersions::bump);
+        batch.clear();
+        lines.clear();
+        return saved.size();
+    }
+
+    // Flushed through the repository so constraint violations surface as DataAccessException
+    private List<Vehicle> save(List<Vehicle> vehicles) {
+        List<Vehicle> result = vehicleRepository.saveAll(vehicles);
+        vehicleRepository.flush();
+        entityManager.clear();
+        return result;
+    }
+
+    private static void reject(List<ImportReport.RowError> errors, long line, String message) {
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new ImportReport.RowError(line, message));
+        }
+    }
+
+    private static Map<String, Integer> parseHeader(String line) {
+        List<String> names = parseCsvLine(line);
+        Map<String, Integer> header = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            header.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : List.of("name", "type", "city", "capacity", "rateperkm")) {
+            if (!header.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header is missing column: " + required);
+            }
+        }
+        return header;
+    }
+
+    private static Vehicle fromCsv(String line, Map<String, Integer> header) {
+        List<String> fields = parseCsvLine(line);
+        Vehicle v = new Vehicle();
+        v.setName(field(fields, header, "name"));
+        v.setType(field(fields, header, "type"));
+        v.setCity(field(fields, header, "city"));
+        v.setCapacity(parseInt(field(fields, header, "capacity"), "capacity"));
+        v.setRatePerKm(parseDouble(field(fields, header, "rateperkm"), "ratePerKm"));
+        String available = field(fields, header, "available");
+        v.setAvailable(available == null || available.isBlank() || Boolean.parseBoolean(available.trim()));
+        v.setLatitude(parseOptionalDouble(field(fields, header, "latitude"), "latitude"));
+        v.setLongitude(parseOptionalDouble(field(fields, header, "longitude"), "longitude"));
+        return v;
+    }
+
+    private Vehicle fromJson(String line) throws IOException {
+        JsonNode node = objectMapper.readTree(line);
+        if (node == null || !node.isObject()) {
+            throw new IllegalArgumentException("Expected a JSON object");
+        }
+        Vehicle v = new Vehicle();
+        v.setName(node.path("name").asText(null));
+        v.setType(node.path("type").asText(null));
+        v.setCity(node.path("city").asText(null));
+        v.setCapacity(node.path("capacity").asInt(0));
+        v.setRatePerKm(node.path("ratePerKm").asDouble(-1));
+        v.setAvailable(node.path("available").asBoolean(true));
+        v.setLatitude(node.path("latitude").isNumber() ? node.path("latitude").asDouble() : null);
+        v.setLongitude(node.path("longitude").isNumber() ? node.path("longitude").asDouble() : null);
+        return v;
+    }
+
+    private static void validate(Vehicle v) {
+        if (v.getName() == null || v.getName().isBlank()) {
+            throw new IllegalArgumentException("name is required");
+        }
+        if (v.getType() == null || v.getType().isBlank()) {
+            throw new IllegalArgumentException("type is required");
+        }
+        if (v.getCity() == null || v.getCity().isBlank()) {
+            throw new IllegalArgumentException("city is required");
+        }
+        // same rule as the owner dashboard form
+        if (v.getCapacity() <= 0 || v.getRatePerKm() < 0) {
+            throw new IllegalArgumentException("Capacity must be > 0 and Rate per Km must be >= 0");
+        }
+        if ((v.getLatitude() == null) != (v.getLongitude() == null)) {
+            throw new IllegalArgumentException("latitude and longitude must be given together");
+        }
+        if (v.getLatitude() != null && (Math.abs(v.getLatitude()) > 90 || Math.abs(v.getLongitude()) > 180)) {
+            throw new IllegalArgumentException("latitude/longitude out of range");
+        }
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> header, String column) {
+        Integer index = header.get(column);
+        return index == null || index >= fields.size() ? null : fields.get(index);
+    }
+
+    private static int parseInt(String value, String column) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException(column + " is not a whole number: " + value);
+        }
+    }
+
+    private static double parseDouble(String value, String column) {
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException(column + " is not a number: " + value);
+        }
+    }
+
+    private static Double parseOptionalDouble(String value, String column) {
+        return value == null || value.isBlank() ? null : parseDouble(value, column);
+    }
+
+    // RFC 4180 fields on a single line: commas, "quoted, fields" and "" escapes
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    // ------------------- EXPORT ------------------------
+
+    /**
+     * Writes the owner's fleet row by row from a database cursor; nothing is collected in memory.
+     */
+    public void exportVehicles(OutputStream out, Format format, String ownerEmail) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        if (format == Format.CSV) {
+            writer.write("id," + String.join(",", CSV_COLUMNS) + "\n");
+        }
+        try {
+            tx.executeWithoutResult(status -> {
+                try (Stream<VehicleSummary> rows = vehicleRepository.streamSummariesByOwnerEmail(ownerEmail)) {
+                    rows.forEach(v -> {
+                        try {
+                            if (format == Format.CSV) {
+                                writer.write(toCsv(v));
+                            } else {
+                                writer.write(objectMapper.writeValueAsString(v));
+                                writer.write('\n');
+                            }
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private static String toCsv(VehicleSummary v) {
+        return v.id() + "," + csv(v.name()) + "," + csv(v.type()) + "," + csv(v.city()) + ","
+                + v.capacity() + "," + v.ratePerKm() + "," + v.available() + ","
+                + (v.latitude() == null ? "" : v.latitude()) + "," + (v.longitude() == null ? "" : v.longitude()) + "\n";
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,275 @@
+package com.vehiclebooking.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.vehiclebooking.config.ReplicaRoutingDataSource;
+import com.vehiclebooking.dto.AvailabilityDelta;
+import com.vehiclebooking.model.Vehicle;
+import com.vehiclebooking.repository.VehicleRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Read-through near-cache in front of {@link VehicleRepository} for single-vehicle lookups and the
+ * per-city availability listing. Caffeine gives size-bounded W-TinyLFU eviction plus a TTL.
+ *
+ * <p>Writers call {@link #vehicleChanged(Vehicle)} or {@link #vehicleRemoved(Long, String)} (bulk
+ * writers {@link #vehiclesChanged(Collection)}), which evict locally and publish a Postgres NOTIFY; every instance LISTENs on the same channel, evicts its
+ * own copies and refreshes its search index, so instances behind a load balancer converge without
+ * waiting for the TTL. The same connection carries {@link AvailabilityBroadcaster}'s deltas and
+ * {@link CatalogVersions}' bumps.
+ *
+ * <p>Cached vehicles are shared: treat them as read-only and load from the repository to modify.
+ */
+@Slf4j
+@Service
+public class VehicleCache {
+
+    private static final String NO_CITY = "";
+    // keeps a NOTIFY payload well under Postgres' 8000-byte limit
+    private static final int MAX_IDS_PER_NOTIFY = 300;
+
+    private final VehicleRepository vehicleRepository;
+    private final VehicleSearchService vehicleSearchService;
+    private final AvailabilityBroadcaster availabilityBroadcaster;
+    private final CatalogVersions catalogVersions;
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<Long, Optional<Vehicle>> byId;
+    private final Cache<String, List<Vehicle>> availableByCity;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final String channel;
+    private final boolean listenEnabled;
+    private final String url;
+    private final String username;
+    private final String password;
+
+    private volatile boolean running;
+    private Thread listener;
+
+    public VehicleCache(VehicleRepository vehicleRepository,
+                        VehicleSearchService vehicleSearchService,
+                        AvailabilityBroadcaster availabilityBroadcaster,
+                        CatalogVersions catalogVersions,
+                        JdbcTemplate jdbcTemplate,
+                        MeterRegistry meterRegistry,
+                        @Value("${app.cache.vehicles.max-size:10000}") long maxSize,
+                        @Value("${app.cache.vehicles.city-max-size:500}") long cityMaxSize,
+                        @Value("${app.cache.vehicles.ttl-seconds:300}") long ttlSeconds,
+                        @Value("${app.cache.vehicles.channel:vehicle_changed}") String channel,
+                        @Value("${app.cache.vehicles.listen:true}") boolean listenEnabled,
+                        @Value("${spring.datasource.url}") String url,
+                        @Value("${spring.datasource.username}") String username,
+                        @Value("${spring.datasource.password}") String password) {
+        this.vehicleRepository = vehicleRepository;
+        this.vehicleSearchService = vehicleSearchService;
+        this.availabilityBroadcaster = availabilityBroadcaster;
+        this.catalogVersions = catalogVersions;
+        this.jdbcTemplate = jdbcTemplate;
+        this.channel = channel;
+        this.listenEnabled = listenEnabled;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        this.availableByCity = Caffeine.newBuilder()
+                .maximumSize(cityMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        // cache.gets{result=hit|miss}, cache.evictions, ... -> hit ratio per cache
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "vehicles.byId");
+        CaffeineCacheMetrics.monitor(meterRegistry, availableByCity, "vehicles.availableByCity");
+    }
+
+    // ------------------- READS ------------------------
+
+    // Misses load from the primary: a lagging replica's copy would be served for the whole TTL,
+    // long after the catalog version that invalidated it has moved on
+    public Optional<Vehicle> getById(Long id) {
+        return byId.get(id, key -> ReplicaRoutingDataSource.onPrimary(() -> vehicleRepository.findById(key)));
+    }
+
+    public List<Vehicle> getAvailableByCity(String city) {
+        return availableByCity.get(city, c -> ReplicaRoutingDataSource.onPrimary(
+                () -> List.copyOf(vehicleRepository.findByCityAndAvailableTrue(c))));
+    }
+
+    // ------------------- INVALIDATION ------------------------
+
+    /**
+     * Call after a vehicle write has committed (or from inside the writing transaction:
+     * NOTIFY is only delivered on commit).
+     */
+    public void vehicleChanged(Vehicle vehicle) {
+        invalidate(vehicle.getId(), vehicle.getCity());
+        availabilityBroadcaster.publish(AvailabilityDelta.changed(vehicle));
+    }
+
+    /**
+     * Bulk form of {@link #vehicleChanged(Vehicle)}: one NOTIFY for the whole batch, after which other
+     * instances drop all their city listings, and one {@code RESYNC} delta per city instead of a
+     * delta per vehicle.
+     */
+    public void vehiclesChanged(Collection<Vehicle> vehicles) {
+        if (vehicles.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(vehicles.size());
+        Set<String> cities = new LinkedHashSet<>();
+        for (Vehicle vehicle : vehicles) {
+            evict(vehicle.getId(), vehicle.getCity());
+            ids.add(vehicle.getId());
+            cities.add(vehicle.getCity());
+        }
+        for (int from = 0; from < ids.size(); from += MAX_IDS_PER_NOTIFY) {
+            List<Long> chunk = ids.subList(from, Math.min(from + MAX_IDS_PER_NOTIFY, ids.size()));
+            publish(chunk.stream().map(String::valueOf).collect(Collectors.joining(",")), NO_CITY);
+        }
+        cities.forEach(city -> availabilityBroadcaster.publish(AvailabilityDelta.resync(city)));
+    }
+
+    /** Call after a vehicle has been deleted; {@code city} may be null if unknown. */
+    public void vehicleRemoved(Long id, String city) {
+        invalidate(id, city);
+        availabilityBroadcaster.publish(AvailabilityDelta.removed(id, city));
+    }
+
+    private void invalidate(Long id, String city) {
+        evict(id, city);
+        publish(String.valueOf(id), city == null ? NO_CITY : city);
+    }
+
+    // Payload: instance:id[,id...]:city
+    private void publish(String ids, String city) {
+        try {
+            jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class,
+                    channel, instanceId + ":" + ids + ":" + city);
+        } catch (RuntimeException e) {
+            // other instances fall back to the TTL
+            log.warn("Could not publish vehicle change for {}: {}", ids, e.getMessage());
+        }
+    }
+
+    private void evict(Long id, String city) {
+        byId.invalidate(id);
+        if (city == null || city.isEmpty()) {
+            availableByCity.invalidateAll();
+        } else {
+            availableByCity.invalidate(city);
+        }
+    }
+
+    private void onRemoteChange(String payload) {
+        String[] parts = payload.split(":", 3);
+        if (parts.length < 3 || parts[0].equals(instanceId)) {
+            return; // our own change, already applied
+        }
+        List<Long> ids = Arrays.stream(parts[1].split(",")).map(Long::valueOf).toList();
+        Set<Long> missing = new HashSet<>(ids);
+        ids.forEach(id -> evict(id, parts[2]));
+        for (Vehicle vehicle : ReplicaRoutingDataSource.onPrimary(() -> vehicleRepository.findAllById(ids))) {
+            vehicleSearchService.index(vehicle);
+            missing.remove(vehicle.getId());
+        }
+        missing.forEach(vehicleSearchService::remove);
+    }
+
+    // ------------------- LISTEN LOOP ------------------------
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startListening() {
+        if (!listenEnabled) {
+            return;
+        }
+        running = true;
+        listener = Thread.ofVirtual().name("vehicle-cache-listener").start(this::listenLoop);
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void stopListening() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    // A dedicated connection (not from the pool) stays subscribed for the life of the instance
+    private void listenLoop() {
+        long backoffMillis = 1000;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                    statement.execute("LISTEN " + availabilityBroadcaster.channel());
+                    statement.execute("LISTEN " + catalogVersions.channel());
+                }
+                // anything published while we were disconnected is lost, so start clean
+                byId.invalidateAll();
+                availableByCity.invalidateAll();
+                catalogVersions.reload();
+                backoffMillis = 1000;
+                PGConnection pg = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications(10_000);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        try {
+                            if (notification.getName().equals(channel)) {
+                                onRemoteChange(notification.getParameter());
+                            } else if (notification.getName().equals(catalogVersions.channel())) {
+                                catalogVersions.onRelayed(notification.getParameter());
+                            } else {
+                                availabilityBroadcaster.onRelayed(notification.getParameter());
+                            }
+                        } catch (RuntimeException e) {
+                            log.warn("Bad vehicle change notification '{}'", notification.getParameter(), e);
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Vehicle cache listener disconnected, retrying in {} ms: {}", backoffMillis, e.getMessage());
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoffMillis = Math.min(backoffMillis * 2, 30_000);
+            }
+        }
+    }
+}
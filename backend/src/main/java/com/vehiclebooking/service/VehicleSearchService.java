@@ -0,0 +1,441 @@
+package com.vehiclebooking.service;
+
+import com.vehiclebooking.dto.NearbyVehicle;
+import com.vehiclebooking.dto.VehicleSummary;
+import com.vehiclebooking.dto.VehicleTypes;
+import com.vehiclebooking.model.Vehicle;
+import com.vehiclebooking.repository.VehicleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over available vehicles.
+ * Every vehicle occupies a slot; cities, types and capacity buckets map to bitsets of slots,
+ * and {@code rateOrder} keeps the slots sorted by (ratePerKm, id) so price filters and
+ * price ordering are a prefix walk. A {@link GeoGrid} over each slot's home base answers
+ * nearest-vehicle queries. VehicleService keeps it current on every write.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class VehicleSearchService {
+
+    public enum SortOrder { NONE, PRICE, PRICE_DESC }
+
+    // lower bounds of the capacity buckets, e.g. bucket 2 holds capacities 8..12
+    private static final int[] CAPACITY_BOUNDS = {0, 5, 8, 13, 21, 35, 50};
+    private static final int LOAD_BATCH = 1000;
+    // ~11 km cells: a typical 5-25 km search touches a handful of them
+    private static final double GEO_CELL_DEGREES = 0.1;
+
+    private final VehicleRepository vehicleRepository;
+    private final Gazetteer gazetteer;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> slotsById = new HashMap<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final Map<String, BitSet> cityBits = new HashMap<>();
+    private final Map<String, BitSet> typeBits = new HashMap<>();
+    private final BitSet[] capacityBits = new BitSet[CAPACITY_BOUNDS.length];
+    private VehicleSummary[] entries = new VehicleSummary[256];
+    private double[] latitudes = new double[256];
+    private double[] longitudes = new double[256];
+    private final GeoGrid grid = new GeoGrid(GEO_CELL_DEGREES);
+    private int[] rateOrder = new int[256];
+    private int size;
+    private int nextSlot;
+
+    {
+        for (int i = 0; i < capacityBits.length; i++) {
+            capacityBits[i] = new BitSet();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            clear();
+            long afterId = 0;
+            while (true) {
+                List<VehicleSummary> batch = vehicleRepository.findPageById(afterId, PageRequest.of(0, LOAD_BATCH));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                for (VehicleSummary v : batch) {
+                    if (v.available()) {
+                        insert(v);
+                    }
+                    afterId = v.id();
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Vehicle search index loaded with {} available vehicles", size);
+    }
+
+    // ------------------- INCREMENTAL MAINTENANCE ------------------------
+
+    public void index(Vehicle vehicle) {
+        VehicleSummary summary = new VehicleSummary(vehicle.getId(), vehicle.getName(), vehicle.getType(),
+                vehicle.getCapacity(), vehicle.getRatePerKm(), vehicle.isAvailable(), vehicle.getCity(),
+                vehicle.getLatitude(), vehicle.getLongitude(), vehicle.getImageKey());
+        lock.writeLock().lock();
+        try {
+            removeById(vehicle.getId());
+            if (summary.available()) {
+                insert(summary);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long vehicleId) {
+        lock.writeLock().lock();
+        try {
+            removeById(vehicleId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ------------------- QUERY ------------------------
+
+    /**
+     * @param city        case-insensitive city, or null for any
+     * @param types       requested categories; none selected means any type
+     * @param minCapacity minimum seats, 0 for any
+     * @param maxRate     maximum ratePerKm, or null for any
+     */
+    public List<VehicleSummary> search(String city, VehicleTypes types, int minCapacity, Double maxRate,
+                                       SortOrder sort, int limit) {
+        lock.readLock().lock();
+        try {
+            BitSet candidates = new BitSet(nextSlot);
+            candidates.set(0, nextSlot);
+            for (Integer free : freeSlots) {
+                candidates.clear(free);
+            }
+
+            if (city != null && !city.isBlank()) {
+                candidates.and(cityBits.getOrDefault(normalize(city), new BitSet()));
+            }
+
+            List<String> wanted = selectedTypes(types);
+            if (!wanted.isEmpty()) {
+                BitSet anyType = new BitSet();
+                for (String type : wanted) {
+                    BitSet bits = typeBits.get(type);
+                    if (bits != null) {
+                        anyType.or(bits);
+                    }
+                }
+                candidates.and(anyType);
+            }
+
+            if (minCapacity > 0) {
+                BitSet bigEnough = new BitSet();
+                for (int b = bucketOf(minCapacity); b < capacityBits.length; b++) {
+                    bigEnough.or(capacityBits[b]);
+                }
+                candidates.and(bigEnough);
+            }
+
+            List<VehicleSummary> result = new ArrayList<>(Math.min(limit, 64));
+            if (sort == SortOrder.PRICE || (sort == SortOrder.NONE && maxRate != null)) {
+                int end = maxRate == null ? size : upperBound(maxRate);
+                for (int i = 0; i < end && result.size() < limit; i++) {
+                    collect(rateOrder[i], candidates, minCapacity, maxRate, result);
+                }
+            } else if (sort == SortOrder.PRICE_DESC) {
+                int end = maxRate == null ? size : upperBound(maxRate);
+                for (int i = end - 1; i >= 0 && result.size() < limit; i--) {
+                    collect(rateOrder[i], candidates, minCapacity, maxRate, result);
+                }
+            } else {
+                for (int slot = candidates.nextSetBit(0); slot >= 0 && result.size() < limit;
+                     slot = candidates.nextSetBit(slot + 1)) {
+                    collect(slot, candidates, minCapacity, maxRate, result);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The {@code limit} nearest available vehicles within {@code radiusKm}, closest first.
+     */
+    public List<NearbyVehicle> nearby(double lat, double lon, double radiusKm, int limit) {
+        lock.readLock().lock();
+        try {
+            NearestSlots nearest = new NearestSlots(limit);
+            grid.forEachNear(lat, lon, radiusKm, slot -> {
+                double distance = FareQuoteService.haversineKm(lat, lon, latitudes[slot], longitudes[slot]);
+                if (distance <= radiusKm) {
+                    nearest.offer(slot, distance);
+                }
+            });
+            return nearest.drainAscending(entries);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ------------------- HELPER METHODS ------------------------
+
+    private void collect(int slot, BitSet candidates, int minCapacity, Double maxRate, List<VehicleSummary> out) {
+        if (!candidates.get(slot)) {
+            return;
+        }
+        VehicleSummary v = entries[slot];
+        // buckets are coarse, so the lowest bucket still needs the exact check
+        if (v.capacity() < minCapacity || (maxRate != null && v.ratePerKm() > maxRate)) {
+            return;
+        }
+        out.add(v);
+    }
+
+    private void insert(VehicleSummary v) {
+        int slot = freeSlots.isEmpty() ? nextSlot++ : freeSlots.pop();
+        if (slot >= entries.length) {
+            entries = Arrays.copyOf(entries, entries.length * 2);
+            latitudes = Arrays.copyOf(latitudes, entries.length);
+            longitudes = Arrays.copyOf(longitudes, entries.length);
+        }
+        entries[slot] = v;
+        placeOnGrid(slot, v);
+        slotsById.put(v.id(), slot);
+        cityBits.computeIfAbsent(normalize(v.city()), k -> new BitSet()).set(slot);
+        typeBits.computeIfAbsent(normalize(v.type()), k -> new BitSet()).set(slot);
+        capacityBits[bucketOf(v.capacity())].set(slot);
+
+        if (size == rateOrder.length) {
+            rateOrder = Arrays.copyOf(rateOrder, rateOrder.length * 2);
+        }
+        int pos = insertionPoint(v.ratePerKm(), v.id());
+        System.arraycopy(rateOrder, pos, rateOrder, pos + 1, size - pos);
+        rateOrder[pos] = slot;
+        size++;
+    }
+
+    private void removeById(Long id) {
+        Integer slot = slotsById.remove(id);
+        if (slot == null) {
+            return;
+        }
+        VehicleSummary v = entries[slot];
+        if (!Double.isNaN(latitudes[slot])) {
+            grid.remove(slot, latitudes[slot], longitudes[slot]);
+        }
+        clearBit(cityBits, normalize(v.city()), slot);
+        clearBit(typeBits, normalize(v.type()), slot);
+        capacityBits[bucketOf(v.capacity())].clear(slot);
+
+        int pos = insertionPoint(v.ratePerKm(), v.id());
+        System.arraycopy(rateOrder, pos + 1, rateOrder, pos, size - pos - 1);
+        size--;
+
+        entries[slot] = null;
+        freeSlots.push(slot);
+    }
+
+    private void clear() {
+        slotsById.clear();
+        freeSlots.clear();
+        cityBits.clear();
+        typeBits.clear();
+        for (BitSet bits : capacityBits) {
+            bits.clear();
+        }
+        Arrays.fill(entries, null);
+        grid.clear();
+        size = 0;
+        nextSlot = 0;
+    }
+
+    // first position in rateOrder whose (rate, id) is >= the given key
+    private int insertionPoint(double rate, long id) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            VehicleSummary m = entries[rateOrder[mid]];
+            int cmp = Double.compare(m.ratePerKm(), rate);
+            if (cmp == 0) {
+                cmp = Long.compare(m.id(), id);
+            }
+            if (cmp < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // explicit coordinates win; otherwise the city centre from the gazetteer; otherwise not on the grid
+    private void placeOnGrid(int slot, VehicleSummary v) {
+        double lat = Double.NaN;
+        double lon = Double.NaN;
+        if (v.latitude() != null && v.longitude() != null) {
+            lat = v.latitude();
+            lon = v.longitude();
+        } else {
+            Optional<Gazetteer.Coordinates> centre = gazetteer.lookup(v.city());
+            if (centre.isPresent()) {
+                lat = centre.get().latitude();
+                lon = centre.get().longitude();
+            }
+        }
+        latitudes[slot] = lat;
+        longitudes[slot] = lon;
+        if (!Double.isNaN(lat)) {
+            grid.add(slot, lat, lon);
+        }
+    }
+
+    // number of entries with ratePerKm <= maxRate
+    private int upperBound(double maxRate) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (entries[rateOrder[mid]].ratePerKm() <= maxRate) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static void clearBit(Map<String, BitSet> index, String key, int slot) {
+        BitSet bits = index.get(key);
+        if (bits != null) {
+            bits.clear(slot);
+            if (bits.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private static int bucketOf(int capacity) {
+        int b = 0;
+        while (b + 1 < CAPACITY_BOUNDS.length && capacity >= CAPACITY_BOUNDS[b + 1]) {
+            b++;
+        }
+        return b;
+    }
+
+    private static List<String> selectedTypes(VehicleTypes types) {
+        List<String> wanted = new ArrayList<>(4);
+        if (types == null) {
+            return wanted;
+        }
+        if (types.isBus()) wanted.add("bus");
+        if (types.isVan()) wanted.add("van");
+        if (types.isCar()) wanted.add("car");
+        if (types.isLuxury()) wanted.add("luxury");
+        return wanted;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Bounded max-heap on distance: keeps the k closest seen so far in O(log k) per offer
+    private static final class NearestSlots {
+        private final int[] slots;
+        private final double[] distances;
+        private int size;
+
+        NearestSlots(int k) {
+            slots = new int[k];
+            distances = new double[k];
+        }
+
+        void offer(int slot, double distance) {
+            if (size < slots.length) {
+                slots[size] = slot;
+                distances[size] = distance;
+                siftUp(size++);
+            } else if (size > 0 && distance < distances[0]) {
+                slots[0] = slot;
+                distances[0] = distance;
+                siftDown(0);
+            }
+        }
+
+        // popping the farthest each time fills the result from the back
+        List<NearbyVehicle> drainAscending(VehicleSummary[] entries) {
+            NearbyVehicle[] out = new NearbyVehicle[size];
+            while (size > 0) {
+                out[size - 1] = new NearbyVehicle(entries[slots[0]], Math.round(distances[0] * 100) / 100.0);
+                size--;
+                slots[0] = slots[size];
+                distances[0] = distances[size];
+                siftDown(0);
+            }
+            return Arrays.asList(out);
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (distances[parent] >= distances[i]) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int largest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && distances[left] > distances[largest]) {
+                    largest = left;
+                }
+                if (right < size && distances[right] > distances[largest]) {
+                    largest = right;
+                }
+                if (largest == i) {
+                    return;
+                }
+                swap(i, largest);
+                i = largest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int slot = slots[a];
+            slots[a] = slots[b];
+            slots[b] = slot;
+            double distance = distances[a];
+            distances[a] = distances[b];
+            distances[b] = distance;
+        }
+    }
+}
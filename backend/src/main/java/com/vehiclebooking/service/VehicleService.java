@@ -1,47 +1,136 @@
 package com.vehiclebooking.service;
 
+import com.vehiclebooking.config.ReplicaRoutingDataSource;
+import com.vehiclebooking.dto.VehiclePage;
+import com.vehiclebooking.dto.VehicleSummary;
 import com.vehiclebooking.model.Vehicle;
 import com.vehiclebooking.repository.VehicleRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.List;
 
 @Service
 @RequiredArgsConstructor
 public class VehicleService {
 
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
     private final VehicleRepository vehicleRepository;
+    private final VehicleSearchService vehicleSearchService;
+    private final VehicleCache vehicleCache;
+    private final CatalogVersions catalogVersions;
 
     public Vehicle addVehicle(Vehicle vehicle) {
-        return vehicleRepository.save(vehicle);
+        Vehicle saved = vehicleRepository.save(vehicle);
+        vehicleSearchService.index(saved);
+        vehicleCache.vehicleChanged(saved);
+        catalogVersions.bump(saved.getCity());
+        return saved;
     }
 
+    // Catalog reads are read-only transactions, served by a replica when one is configured
+    // and caught up; right after a catalog change they stay on the primary
+    @Transactional(readOnly = true)
     public List<Vehicle> getAllVehicles() {
-        return vehicleRepository.findAll();
+        return catalogVersions.read(null, vehicleRepository::findAll);
     }
 
+    // No transaction: hits need no connection and VehicleCache loads misses from the primary
     public List<Vehicle> getAvailableVehiclesByCity(String city) {
-        return vehicleRepository.findByCityAndAvailableTrue(city);
+        return catalogVersions.read(city, () -> vehicleCache.getAvailableByCity(city));
+    }
+
+    // ------------------- KEYSET PAGINATION ------------------------
+
+    // sort is "id" or "rate"; cursor is the opaque token returned with the previous page
+    @Transactional(readOnly = true)
+    public VehiclePage getVehiclePage(String sort, String cursor, int size) {
+        int limit = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        // fetch one extra row to learn whether another page exists
+        PageRequest window = PageRequest.of(0, limit + 1);
+        boolean byRate = "rate".equalsIgnoreCase(sort);
+        if (!byRate && !"id".equalsIgnoreCase(sort)) {
+            throw new IllegalArgumentException("Unsupported sort: " + sort);
+        }
+        return catalogVersions.read(null, () -> toPage(byRate, cursor, limit, window));
+    }
+
+    private VehiclePage toPage(boolean byRate, String cursor, int limit, PageRequest window) {
+        List<VehicleSummary> rows;
+        if (byRate) {
+            if (cursor == null || cursor.isBlank()) {
+                rows = vehicleRepository.findFirstPageByRate(window);
+            } else {
+                String[] parts = decodeCursor(cursor, "rate", 3);
+                rows = vehicleRepository.findPageByRate(Double.parseDouble(parts[1]), Long.parseLong(parts[2]), window);
+            }
+        } else {
+            long afterId = 0;
+            if (cursor != null && !cursor.isBlank()) {
+                afterId = Long.parseLong(decodeCursor(cursor, "id", 2)[1]);
+            }
+            rows = vehicleRepository.findPageById(afterId, window);
+        }
+
+        if (rows.size() <= limit) {
+            return new VehiclePage(rows, null);
+        }
+        List<VehicleSummary> page = rows.subList(0, limit);
+        VehicleSummary last = page.get(limit - 1);
+        String next = byRate
+                ? encodeCursor("rate:" + last.ratePerKm() + ":" + last.id())
+                : encodeCursor("id:" + last.id());
+        return new VehiclePage(List.copyOf(page), next);
+    }
+
+    private static String encodeCursor(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor, String expectedSort, int expectedParts) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            if (parts.length != expectedParts || !parts[0].equals(expectedSort)) {
+                throw new IllegalArgumentException("Cursor does not match sort order");
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
     }
 
     public void deleteVehicle(Long id) {
+        String city = vehicleRepository.findById(id).map(Vehicle::getCity).orElse(null);
         vehicleRepository.deleteById(id);
+        vehicleSearchService.remove(id);
+        vehicleCache.vehicleRemoved(id, city);
+        catalogVersions.bump(city);
     }
 
     // ------------------- HELPER METHODS ------------------------
 
 public Vehicle getVehicleById(Long id) {
-    return vehicleRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Vehicle not found with id: " + id));
+    return vehicleCache.getById(id)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Vehicle not found with id: " + id));
 }
 
 
     // ------------------- OWNER-SPECIFIC METHODS ------------------------
 
-    // Get vehicles belonging to a particular owner
+    // Get vehicles belonging to a particular owner; stays on the primary so owners see their own edits
+    @Transactional(readOnly = true)
     public List<Vehicle> getVehiclesByOwner(String ownerEmail) {
-        return vehicleRepository.findByOwnerEmail(ownerEmail);
+        // read-only would route to a replica; the connection is only taken at the first statement
+        return ReplicaRoutingDataSource.onPrimary(() -> vehicleRepository.findByOwnerEmail(ownerEmail));
     }
 
     // Update vehicle details (owner only)
@@ -53,8 +142,17 @@ public Vehicle getVehicleById(Long id) {
         existing.setCapacity(vehicle.getCapacity());
         existing.setRatePerKm(vehicle.getRatePerKm());
         existing.setAvailable(vehicle.isAvailable());
+        // older clients don't send a home base; keep the current one
+        if (vehicle.getLatitude() != null && vehicle.getLongitude() != null) {
+            existing.setLatitude(vehicle.getLatitude());
+            existing.setLongitude(vehicle.getLongitude());
+        }
         // Do NOT allow changing ownerEmail here for security
-        return vehicleRepository.save(existing);
+        Vehicle saved = vehicleRepository.save(existing);
+        vehicleSearchService.index(saved);
+        vehicleCache.vehicleChanged(saved);
+        catalogVersions.bump(saved.getCity());
+        return saved;
     }
 
     // Delete vehicle (only if owner matches)
@@ -65,5 +163,8 @@ public Vehicle getVehicleById(Long id) {
             throw new RuntimeException("Not authorized to delete this vehicle");
         }
         vehicleRepository.delete(vehicle);
+        vehicleSearchService.remove(id);
+        vehicleCache.vehicleRemoved(id, vehicle.getCity());
+        catalogVersions.bump(vehicle.getCity());
     }
 }
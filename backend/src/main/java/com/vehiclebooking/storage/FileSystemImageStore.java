@@ -0,0 +1,90 @@
+package com.vehiclebooking.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+@Component
+public class FileSystemImageStore implements ImageStore {
+
+    private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    private final Path root;
+
+    public FileSystemImageStore(@Value("${app.images.root:./data/images}") String root) throws IOException {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        Files.createDirectories(this.root);
+    }
+
+    @Override
+    public String put(InputStream in) throws IOException {
+        MessageDigest digest = sha256();
+        Path tmp = Files.createTempFile(root, "upload-", ".tmp");
+        try {
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(tmp), digest)) {
+                in.transferTo(out);
+            }
+            String key = HexFormat.of().formatHex(digest.digest());
+            Path target = resolve(key);
+            if (Files.exists(target)) {
+                return key; // same bytes already stored
+            }
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // a concurrent upload of the same bytes won the race
+            }
+            return key;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    @Override
+    public Optional<StoredImage> find(String key) throws IOException {
+        if (key == null || !KEY_PATTERN.matcher(key).matches()) {
+            return Optional.empty();
+        }
+        Path path = resolve(key);
+        if (!Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+        BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+        return Optional.of(new StoredImage(key, path, attrs.size(),
+                attrs.lastModifiedTime().toMillis(), sniffContentType(path)));
+    }
+
+    // Shard by the first two bytes so no single directory grows unbounded
+    private Path resolve(String key) {
+        return root.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+    }
+
+    private static String sniffContentType(Path path) throws IOException {
+        byte[] head = new byte[12];
+        int n;
+        try (InputStream in = Files.newInputStream(path)) {
+            n = in.readNBytes(head, 0, head.length);
+        }
+        return ImageStore.sniffContentType(head, n);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.vehiclebooking.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+/**
+ * Content-addressed blob store for vehicle images.
+ * Keys are the hex SHA-256 of the stored bytes, so identical uploads share one blob.
+ */
+public interface ImageStore {
+
+    /**
+     * Streams the given input into the store and returns its content key.
+     */
+    String put(InputStream in) throws IOException;
+
+    Optional<StoredImage> find(String key) throws IOException;
+
+    /**
+     * Content type from the first bytes of an image (JPEG, PNG, GIF or WebP), or
+     * {@code application/octet-stream} if none of them match.
+     */
+    static String sniffContentType(byte[] head, int n) {
+        if (n >= 3 && (head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xD8 && (head[2] & 0xFF) == 0xFF) {
+            return "image/jpeg";
+        }
+        if (n >= 8 && (head[0] & 0xFF) == 0x89 && head[1] == 'P' && head[2] == 'N' && head[3] == 'G') {
+            return "image/png";
+        }
+        if (n >= 6 && head[0] == 'G' && head[1] == 'I' && head[2] == 'F') {
+            return "image/gif";
+        }
+        if (n >= 12 && head[0] == 'R' && head[1] == 'I' && head[2] == 'F' && head[3] == 'F'
+                && head[8] == 'W' && head[9] == 'E' && head[10] == 'B' && head[11] == 'P') {
+            return "image/webp";
+        }
+        return "application/octet-stream";
+    }
+}
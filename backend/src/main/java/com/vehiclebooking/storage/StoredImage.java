@@ -0,0 +1,17 @@
+package com.vehiclebooking.storage;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Metadata for a blob held by an {@link ImageStore}.
+ * {@code path} points at the local file so callers can hand it to sendfile / transferTo.
+ */
+public record StoredImage(String key, Path path, long size, long lastModified, String contentType) {
+
+    public FileChannel openChannel() throws IOException {
+        return FileChannel.open(path, StandardOpenOption.READ);
+    }
+}
@@ -0,0 +1,272 @@
+package com.vehiclebooking.util;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.cert.Certificate;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT signing and verification keys, loaded from a PKCS12 keystore shared by every instance. Each
+ * entry's alias is its {@code kid}:
+ * <ul>
+ *   <li>secret key entry (HmacSHA256): signs and verifies HS256</li>
+ *   <li>private key entry on P-256 with its certificate: signs ES256, verifies with the public key</li>
+ *   <li>trusted certificate entry: verifies only, for nodes that must not be able to sign</li>
+ * </ul>
+ *
+ * <p>Rotation by creation date: a newly added key is accepted for verification straight away
+ * but only starts signing after {@code activation-delay}, once every instance has picked up the
+ * file. The key it replaces keeps verifying for {@code overlap} after it actually stopped signing
+ * (its successor's activation, or the reload that switched keys, whichever is later), which must
+ * cover the token lifetime. {@code active-kid} pins the signing key instead; the pinned key never
+ * expires. The file is re-read when it changes; a keystore that does not load is logged and the
+ * previous ring stays in force.
+ *
+ * <p>Without a keystore an ephemeral HS256 key is generated, which only suits a single node:
+ * tokens do not survive a restart.
+ */
+@Slf4j
+@Component
+public class JwtKeyRing {
+
+    private final Path keystore;
+    private final char[] password;
+    private final String activeKid;
+    private final long activationDelayMillis;
+    private final long overlapMillis;
+    private final Clock clock;
+
+    private volatile Ring ring;
+    private volatile long loadedModified;
+
+    @Autowired
+    public JwtKeyRing(@Value("${app.security.jwt.keystore:}") String keystore,
+                      @Value("${app.security.jwt.keystore-password:}") String password,
+                      @Value("${app.security.jwt.active-kid:}") String activeKid,
+                      @Value("${app.security.jwt.activation-delay-minutes:10}") long activationDelayMinutes,
+                      @Value("${app.security.jwt.overlap-hours:25}") long overlapHours)
+            throws IOException, GeneralSecurityException {
+        this.keystore = keystore.isBlank() ? null : Path.of(keystore);
+        this.password = password.toCharArray();
+        this.activeKid = activeKid.isBlank() ? null : activeKid;
+        this.activationDelayMillis = TimeUnit.MINUTES.toMillis(activationDelayMinutes);
+        this.overlapMillis = TimeUnit.HOURS.toMillis(overlapHours);
+        this.clock = Clock.systemUTC();
+        if (this.keystore == null) {
+            log.warn("app.security.jwt.keystore is not set; signing with an ephemeral key. "
+                    + "Tokens will not survive a restart or work across instances.");
+            this.ring = compile(List.of(ephemeral()));
+        } else {
+            // a bad keystore at startup is fatal; later ones are only logged
+            this.loadedModified = lastModified();
+            this.ring = compile(load());
+        }
+    }
+
+    JwtKeyRing(List<KeyEntry> entries, String activeKid, Duration activationDelay, Duration overlap, Clock clock) {
+        this.keystore = null;
+        this.password = new char[0];
+        this.activeKid = activeKid;
+        this.activationDelayMillis = activationDelay.toMillis();
+        this.overlapMillis = overlap.toMillis();
+        this.clock = clock;
+        this.ring = compile(entries);
+    }
+
+    /** A fixed ring, for benchmarks and tools; {@code activeKid} signs. */
+    public static JwtKeyRing of(List<KeyEntry> entries, String activeKid) {
+        return new JwtKeyRing(entries, activeKid, Duration.ZERO, Duration.ofMillis(Long.MAX_VALUE / 4),
+                Clock.systemUTC());
+    }
+
+    /** An HS256 key that lives only as long as this process. */
+    public static KeyEntry ephemeral() {
+        Key key = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+        return new KeyEntry("ephemeral-" + UUID.randomUUID().toString().substring(0, 8), key, key, Instant.now());
+    }
+
+    // ------------------- LOOKUP ------------------------
+
+    /** The key new tokens are signed with; fails on a verify-only ring. */
+    public SigningKey signingKey() {
+        SigningKey signer = ring.signerAt(clock.millis());
+        if (signer == null) {
+            throw new IllegalStateException("The JWT key ring holds no signing key");
+        }
+        return signer;
+    }
+
+    /** The key to verify a token with {@code kid}, or null if it is unknown or retired. */
+    public Key verificationKey(String kid) {
+        if (kid == null) {
+            return null;
+        }
+        Verifier verifier = ring.verifiers.get(kid);
+        return verifier == null || verifier.notAfterMillis < clock.millis() ? null : verifier.key;
+    }
+
+    // ------------------- HOT RELOAD ------------------------
+
+    @Scheduled(fixedDelayString = "${app.security.jwt.reload-seconds:60}", timeUnit = TimeUnit.SECONDS)
+    public void reloadIfChanged() {
+        if (keystore == null) {
+            return;
+        }
+        long modified = lastModified();
+        if (modified == loadedModified) {
+            return;
+        }
+        loadedModified = modified; // a bad edit is reported once, not every poll
+        try {
+            reload(load());
+            log.info("Reloaded JWT keys from {}", keystore);
+        } catch (IOException | GeneralSecurityException | RuntimeException e) {
+            log.error("Ignoring unreadable JWT keystore {}; keeping the previous keys", keystore, e);
+        }
+    }
+
+    void reload(List<KeyEntry> entries) {
+        ring = compile(entries);
+    }
+
+    private long lastModified() {
+        try {
+            return Files.getLastModifiedTime(keystore).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private List<KeyEntry> load() throws IOException, GeneralSecurityException {
+        KeyStore store = KeyStore.getInstance("PKCS12");
+        try (InputStream in = Files.newInputStream(keystore)) {
+            store.load(in, password);
+        }
+        List<KeyEntry> entries = new ArrayList<>();
+        for (String alias : Collections.list(store.aliases())) {
+            Instant created = store.getCreationDate(alias).toInstant();
+            if (store.isKeyEntry(alias)) {
+                Key key = store.getKey(alias, password);
+                Key verify = key;
+                if (key instanceof PrivateKey) {
+                    Certificate certificate = store.getCertificate(alias);
+                    if (certificate == null) {
+                        throw new GeneralSecurityException("Private key '" + alias + "' has no certificate");
+                    }
+                    verify = certificate.getPublicKey();
+                }
+                entries.add(new KeyEntry(alias, key, verify, created));
+            } else if (store.isCertificateEntry(alias)) {
+                entries.add(new KeyEntry(alias, null, store.getCertificate(alias).getPublicKey(), created));
+            }
+        }
+        if (entries.isEmpty()) {
+            throw new GeneralSecurityException("No keys in " + keystore);
+        }
+        return entries;
+    }
+
+    // ------------------- COMPILATION ------------------------
+
+    private Ring compile(List<KeyEntry> entries) {
+        long now = clock.millis();
+        Ring previous = ring;
+        SigningKey wasSigning = previous == null ? null : previous.signerAt(now);
+        // newest first
+        List<KeyEntry> signable = entries.stream()
+                .filter(e -> e.signingKey() != null)
+                .sorted(Comparator.comparing(KeyEntry::created).reversed())
+                .toList();
+        List<SigningKey> signers = new ArrayList<>(signable.size());
+        Map<String, Verifier> verifiers = new HashMap<>();
+        SigningKey pinned = null;
+        long successorActiveFrom = Long.MAX_VALUE;
+        for (KeyEntry entry : signable) {
+            long activeFrom = entry.created().toEpochMilli() + activationDelayMillis;
+            // SignatureAlgorithm also rejects keys too weak for their algorithm
+            SigningKey signer = new SigningKey(entry.kid(), entry.signingKey(),
+                    SignatureAlgorithm.forSigningKey(entry.signingKey()), activeFrom);
+            signers.add(signer);
+            long notAfter = successorActiveFrom == Long.MAX_VALUE
+                    ? Long.MAX_VALUE : successorActiveFrom + overlapMillis;
+            if (entry.kid().equals(activeKid)) {
+                pinned = signer;
+                notAfter = Long.MAX_VALUE;
+            }
+            if (wasSigning != null && wasSigning.kid().equals(entry.kid())) {
+                // it signed until this reload, however long ago its successor was created
+                notAfter = Math.max(notAfter, now + overlapMillis);
+            }
+            Verifier before = previous == null ? null : previous.verifiers.get(entry.kid());
+            if (before != null && before.key.equals(entry.verificationKey()) && before.notAfterMillis != Long.MAX_VALUE) {
+                // a reload never cuts short a retirement window granted earlier
+                notAfter = Math.max(notAfter, before.notAfterMillis);
+            }
+            verifiers.put(entry.kid(), new Verifier(entry.verificationKey(), notAfter));
+            successorActiveFrom = activeFrom;
+        }
+        for (KeyEntry entry : entries) {
+            // verify-only entries stay trusted until they are removed from the keystore
+            verifiers.putIfAbsent(entry.kid(), new Verifier(entry.verificationKey(), Long.MAX_VALUE));
+        }
+        if (activeKid != null && pinned == null) {
+            throw new IllegalArgumentException("active-kid '" + activeKid + "' is not a signing key in the keystore");
+        }
+        Ring compiled = new Ring(List.copyOf(signers), Map.copyOf(verifiers), pinned);
+        SigningKey current = compiled.signerAt(now);
+        log.info("JWT key ring: {} signing, {} verifying; signing with '{}'", signers.size(), verifiers.size(),
+                current == null ? "-" : current.kid());
+        return compiled;
+    }
+
+    /** One keystore entry; {@code signingKey} is null for verify-only entries. */
+    public record KeyEntry(String kid, Key signingKey, Key verificationKey, Instant created) {
+    }
+
+    public record SigningKey(String kid, Key key, SignatureAlgorithm algorithm, long activeFromMillis) {
+    }
+
+    private record Verifier(Key key, long notAfterMillis) {
+    }
+
+    private record Ring(List<SigningKey> signers, Map<String, Verifier> verifiers, SigningKey pinned) {
+
+        // The pinned key, else the newest active one; null on a verify-only ring
+        SigningKey signerAt(long now) {
+            if (pinned != null) {
+                return pinned;
+            }
+            for (SigningKey candidate : signers) {
+                if (candidate.activeFromMillis <= now) {
+                    return candidate;
+                }
+            }
+            // nothing has activated yet (a brand-new keystore): use the oldest key
+            return signers.isEmpty() ? null : signers.get(signers.size() - 1);
+        }
+    }
+}
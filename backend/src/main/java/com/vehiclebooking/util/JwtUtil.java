@@ -1,37 +1,60 @@
 package com.vehiclebooking.util;
 
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.Keys;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.UUID;
 
 @Component
 public class JwtUtil {
     private static final long EXPIRATION_TIME = 86400000; // 1 day in ms
-    private static final Key key = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+
+    private final JwtKeyRing keyRing;
+    // JwtParser is immutable and thread-safe, so build it once; the key is picked per token by kid
+    private final JwtParser parser;
+
+    public JwtUtil(JwtKeyRing keyRing) {
+        this.keyRing = keyRing;
+        this.parser = Jwts.parserBuilder().setSigningKeyResolver(new SigningKeyResolverAdapter() {
+            @Override
+            public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                Key key = keyRing.verificationKey(header.getKeyId());
+                if (key == null) {
+                    throw new UnsupportedJwtException("Unknown or retired signing key: " + header.getKeyId());
+                }
+                return key;
+            }
+        }).build();
+    }
 
     public String generateToken(String email) {
+        JwtKeyRing.SigningKey signingKey = keyRing.signingKey();
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, signingKey.kid())
+                .setId(UUID.randomUUID().toString())
                 .setSubject(email)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-                .signWith(key)
+                .signWith(signingKey.key(), signingKey.algorithm())
                 .compact();
     }
 
     public String extractEmail(String token) {
-        return Jwts.parserBuilder().setSigningKey(key).build()
-                .parseClaimsJws(token).getBody().getSubject();
+        return parser.parseClaimsJws(token).getBody().getSubject();
     }
 
     public boolean validateToken(String token) {
+        return parseClaims(token) != null;
+    }
+
+    // Validates and parses in one pass; returns null for any invalid or expired token
+    public Claims parseClaims(String token) {
         try {
-            Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
-            return true;
-        } catch (JwtException e) {
-            return false;
+            return parser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
         }
     }
-}
\ No newline at end of file
+}
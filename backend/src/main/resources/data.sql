@@ -1,13 +1,11 @@
--- Roles
-INSERT INTO roles (id, name) VALUES (1, 'ROLE_USER');
-INSERT INTO roles (id, name) VALUES (2, 'ROLE_OWNER');
-INSERT INTO roles (id, name) VALUES (3, 'ROLE_ADMIN');
+-- Sample data for local development (not applied automatically; run with psql if wanted).
+-- The schema itself is owned by the Flyway migrations in db/migration.
 
--- Sample Vehicles (optional)
-INSERT INTO vehicles (id, owner_email, city, type, model, rate_per_km, available) VALUES
-  (1, 'owner1@example.com', 'Chennai', 'Car', 'Toyota Innova', 100, true),
-  (2, 'owner2@example.com', 'Bangalore', 'Bus', 'Volvo 9700', 150, true),
-  (3, 'owner1@example.com', 'Chennai', 'Van', 'Mahindra Xylo', 80, true);
+-- Sample Vehicles
+INSERT INTO vehicles (owner_email, city, type, name, capacity, rate_per_km, available) VALUES
+  ('owner1@example.com', 'Chennai', 'Car', 'Toyota Innova', 7, 100, true),
+  ('owner2@example.com', 'Bangalore', 'Bus', 'Volvo 9700', 45, 150, true),
+  ('owner1@example.com', 'Chennai', 'Van', 'Mahindra Xylo', 8, 80, true);
 
--- Sample Users (optional, depending on user schema)
--- INSERT INTO users (id, email, password, ...) VALUES (...);
+-- Sample Users (passwords must be BCrypt hashes; register through /api/auth instead)
+-- INSERT INTO users (email, password, role, ...) VALUES (...);
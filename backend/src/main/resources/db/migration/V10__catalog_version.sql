@@ -0,0 +1,8 @@
+-- Per-city vehicle catalog versions behind the listing ETags (see CatalogVersions).
+-- '*' versions the whole catalog (GET /api/vehicles); city keys are lower-cased.
+CREATE TABLE IF NOT EXISTS catalog_version (
+    city    VARCHAR(255) PRIMARY KEY,
+    version BIGINT       NOT NULL
+);
+
+INSERT INTO catalog_version (city, version) VALUES ('*', 1) ON CONFLICT (city) DO NOTHING;
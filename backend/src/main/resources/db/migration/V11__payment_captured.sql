@@ -0,0 +1,7 @@
+-- CAPTURED: the gateway has taken the money but the booking is not yet marked paid.
+-- The worker only retries the settlement step for these, never the capture.
+DROP INDEX IF EXISTS idx_payment_due;
+
+CREATE INDEX IF NOT EXISTS idx_payment_due
+    ON payment (next_attempt_at)
+    WHERE status IN ('INITIATED', 'AUTHORIZED', 'CAPTURED');
@@ -0,0 +1,37 @@
+-- Schema as mapped by the original User, Vehicle and Booking entities.
+-- IF NOT EXISTS lets databases created before migrations adopt it unchanged.
+CREATE TABLE IF NOT EXISTS users (
+    id           BIGSERIAL PRIMARY KEY,
+    first_name   VARCHAR(255),
+    last_name    VARCHAR(255),
+    name         VARCHAR(255),
+    phone_number VARCHAR(255),
+    company_name VARCHAR(255),
+    email        VARCHAR(255) UNIQUE,
+    password     VARCHAR(255),
+    role         VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS vehicles (
+    id          BIGSERIAL PRIMARY KEY,
+    picture     TEXT,
+    name        VARCHAR(255),
+    type        VARCHAR(255),
+    capacity    INTEGER          NOT NULL DEFAULT 0,
+    rate_per_km DOUBLE PRECISION NOT NULL DEFAULT 0,
+    available   BOOLEAN          NOT NULL DEFAULT FALSE,
+    city        VARCHAR(255),
+    owner_email VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS booking (
+    id              BIGSERIAL PRIMARY KEY,
+    user_email      VARCHAR(255),
+    paid            BOOLEAN          NOT NULL DEFAULT FALSE,
+    vehicle_id      BIGINT,
+    pickup_location VARCHAR(255),
+    drop_location   VARCHAR(255),
+    distance_in_km  DOUBLE PRECISION NOT NULL DEFAULT 0,
+    total_cost      DOUBLE PRECISION NOT NULL DEFAULT 0,
+    confirmed       BOOLEAN          NOT NULL DEFAULT FALSE
+);
@@ -0,0 +1,2 @@
+-- Content hash of the vehicle image in the ImageStore; picture only holds legacy Base64
+ALTER TABLE vehicles ADD COLUMN IF NOT EXISTS image_key VARCHAR(64);
@@ -0,0 +1,12 @@
+-- Booking time windows; the exclusion constraint is the cross-instance guard against
+-- double booking, BookingService's striped locks keep same-instance contention off it.
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE booking ADD COLUMN IF NOT EXISTS start_time TIMESTAMP WITH TIME ZONE;
+ALTER TABLE booking ADD COLUMN IF NOT EXISTS end_time   TIMESTAMP WITH TIME ZONE;
+ALTER TABLE booking ADD COLUMN IF NOT EXISTS version    BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE booking DROP CONSTRAINT IF EXISTS booking_no_overlap;
+ALTER TABLE booking ADD CONSTRAINT booking_no_overlap
+    EXCLUDE USING gist (vehicle_id WITH =, tstzrange(start_time, end_time, '[)') WITH &&)
+    WHERE (confirmed AND start_time IS NOT NULL AND end_time IS NOT NULL);
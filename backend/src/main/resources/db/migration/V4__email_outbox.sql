@@ -0,0 +1,18 @@
+-- Transactional outbox for notification emails (see EmailService / EmailOutboxDispatcher)
+CREATE TABLE IF NOT EXISTS email_outbox (
+    id              BIGSERIAL PRIMARY KEY,
+    dedup_key       VARCHAR(255) NOT NULL UNIQUE,
+    recipient       VARCHAR(255),
+    subject         VARCHAR(255),
+    body            TEXT,
+    status          VARCHAR(16)  NOT NULL,
+    attempts        INTEGER      NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP WITH TIME ZONE,
+    created_at      TIMESTAMP WITH TIME ZONE,
+    sent_at         TIMESTAMP WITH TIME ZONE,
+    last_error      TEXT
+);
+
+CREATE INDEX IF NOT EXISTS idx_email_outbox_due
+    ON email_outbox (next_attempt_at)
+    WHERE status IN ('PENDING', 'SENDING');
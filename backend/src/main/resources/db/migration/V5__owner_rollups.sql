@@ -0,0 +1,32 @@
+-- Per-vehicle, per-day booking rollups for the owner dashboard (see OwnerStatsService)
+CREATE TABLE IF NOT EXISTS vehicle_daily_rollup (
+    vehicle_id     BIGINT           NOT NULL,
+    day            DATE             NOT NULL,
+    owner_email    VARCHAR(255)     NOT NULL,
+    bookings       BIGINT           NOT NULL DEFAULT 0,
+    paid_bookings  BIGINT           NOT NULL DEFAULT 0,
+    revenue        DOUBLE PRECISION NOT NULL DEFAULT 0,
+    paid_revenue   DOUBLE PRECISION NOT NULL DEFAULT 0,
+    booked_minutes BIGINT           NOT NULL DEFAULT 0,
+    PRIMARY KEY (vehicle_id, day)
+);
+
+CREATE INDEX IF NOT EXISTS idx_vehicle_daily_rollup_owner_day
+    ON vehicle_daily_rollup (owner_email, day);
+
+-- Backfill from existing bookings
+INSERT INTO vehicle_daily_rollup
+    (vehicle_id, day, owner_email, bookings, paid_bookings, revenue, paid_revenue, booked_minutes)
+SELECT b.vehicle_id,
+       (b.start_time AT TIME ZONE 'UTC')::date,
+       v.owner_email,
+       COUNT(*),
+       COUNT(*) FILTER (WHERE b.paid),
+       SUM(b.total_cost),
+       COALESCE(SUM(b.total_cost) FILTER (WHERE b.paid), 0),
+       SUM(EXTRACT(EPOCH FROM (b.end_time - b.start_time)) / 60)::BIGINT
+FROM booking b
+JOIN vehicles v ON v.id = b.vehicle_id
+WHERE b.confirmed AND b.start_time IS NOT NULL AND b.end_time IS NOT NULL
+GROUP BY b.vehicle_id, (b.start_time AT TIME ZONE 'UTC')::date, v.owner_email
+ON CONFLICT (vehicle_id, day) DO NOTHING;
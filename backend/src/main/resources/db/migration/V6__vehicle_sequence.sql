@@ -0,0 +1,7 @@
+-- Vehicle ids now come from a pooled sequence (allocationSize = 50) so inserts can be batched.
+-- Hibernate hands out blocks of 50, so the sequence must advance by the same step.
+ALTER TABLE vehicles ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS vehicles_id_seq;
+ALTER SEQUENCE vehicles_id_seq INCREMENT BY 50 OWNED BY vehicles.id;
+ALTER TABLE vehicles ALTER COLUMN id SET DEFAULT nextval('vehicles_id_seq');
+SELECT setval('vehicles_id_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM vehicles));
@@ -0,0 +1,23 @@
+-- Indexes for the queries the repositories actually run
+
+-- VehicleRepository.findByCityAndAvailableTrue: only available rows are ever searched
+CREATE INDEX IF NOT EXISTS idx_vehicles_city_available
+    ON vehicles (city) WHERE available;
+
+-- VehicleRepository.findByOwnerEmail / owner summaries and exports (ordered by id)
+CREATE INDEX IF NOT EXISTS idx_vehicles_owner_email_id
+    ON vehicles (owner_email, id);
+
+-- Keyset pagination by price: ORDER BY rate_per_km, id
+CREATE INDEX IF NOT EXISTS idx_vehicles_rate_id
+    ON vehicles (rate_per_km, id);
+
+-- BookingRepository.findByUserEmail
+CREATE INDEX IF NOT EXISTS idx_booking_user_email
+    ON booking (user_email);
+
+-- BookingRepository.existsOverlapping and per-vehicle history
+CREATE INDEX IF NOT EXISTS idx_booking_vehicle_start
+    ON booking (vehicle_id, start_time);
+
+-- UserRepository.findByEmail is served by the users.email unique constraint
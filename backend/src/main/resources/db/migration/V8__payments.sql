@@ -0,0 +1,23 @@
+-- Payment records; the idempotency key doubles as the dedup store for POST /api/bookings/{id}/pay
+CREATE TABLE IF NOT EXISTS payment (
+    id              BIGSERIAL PRIMARY KEY,
+    booking_id      BIGINT           NOT NULL REFERENCES booking (id),
+    idempotency_key VARCHAR(255)     NOT NULL UNIQUE,
+    amount          DOUBLE PRECISION NOT NULL,
+    status          VARCHAR(16)      NOT NULL,
+    gateway_ref     VARCHAR(255),
+    attempts        INTEGER          NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP WITH TIME ZONE,
+    last_error      TEXT,
+    created_at      TIMESTAMP WITH TIME ZONE NOT NULL,
+    updated_at      TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+-- At most one live payment per booking, whichever key the client retried with
+CREATE UNIQUE INDEX IF NOT EXISTS uq_payment_live_booking
+    ON payment (booking_id)
+    WHERE status <> 'FAILED';
+
+CREATE INDEX IF NOT EXISTS idx_payment_due
+    ON payment (next_attempt_at)
+    WHERE status IN ('INITIATED', 'AUTHORIZED');
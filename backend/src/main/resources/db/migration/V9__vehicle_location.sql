@@ -0,0 +1,3 @@
+-- Home base of each vehicle for GET /api/vehicles/nearby; NULL falls back to the city centre
+ALTER TABLE vehicles ADD COLUMN IF NOT EXISTS latitude  DOUBLE PRECISION;
+ALTER TABLE vehicles ADD COLUMN IF NOT EXISTS longitude DOUBLE PRECISION;
@@ -0,0 +1,196 @@
+package com.vehiclebooking.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Routing against two real servers, wired like {@link DataSourceConfig}: a lazy proxy in front,
+ * a transaction manager that marks read-only transactions. Each server holds a one-row
+ * {@code node} table naming it, so a query shows where it ran.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private static EmbeddedPostgres primaryServer;
+    private static EmbeddedPostgres replicaServer;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<ReplicaRoutingDataSource> routings = new ArrayList<>();
+
+    @BeforeAll
+    static void startServers() throws IOException {
+        primaryServer = EmbeddedPostgres.builder().start();
+        replicaServer = EmbeddedPostgres.builder().start();
+        name(primaryServer, "primary");
+        name(replicaServer, "replica");
+    }
+
+    @AfterAll
+    static void stopServers() throws IOException {
+        primaryServer.close();
+        replicaServer.close();
+    }
+
+    @AfterEach
+    void closePools() {
+        routings.forEach(ReplicaRoutingDataSource::destroy);
+    }
+
+    @Test
+    void readOnlyTransactionReadsFromTheReplica() {
+        Routing routing = routing(replicaServer, 2000);
+        routing.dataSource.checkReplicas();
+
+        assertThat(routing.readOnly(routing::node)).isEqualTo("replica");
+    }
+
+    @Test
+    void writesAndNonTransactionalReadsUseThePrimary() {
+        Routing routing = routing(replicaServer, 2000);
+        routing.dataSource.checkReplicas();
+
+        assertThat(routing.readWrite(routing::node)).isEqualTo("primary");
+        assertThat(routing.node()).isEqualTo("primary");
+    }
+
+    @Test
+    void replicaIsUnusedUntilItsFirstHealthCheckPasses() {
+        Routing routing = routing(replicaServer, 2000);
+
+        assertThat(routing.readOnly(routing::node)).isEqualTo("primary");
+    }
+
+    @Test
+    void onPrimaryKeepsReadOnlyWorkOnThePrimary() {
+        Routing routing = routing(replicaServer, 2000);
+        routing.dataSource.checkReplicas();
+
+        String inside = ReplicaRoutingDataSource.onPrimary(() -> routing.readOnly(routing::node));
+        assertThat(inside).isEqualTo("primary");
+        // nothing leaks past the call
+        assertThat(routing.readOnly(routing::node)).isEqualTo("replica");
+    }
+
+    @Test
+    void readYourWritesSendsRecentlyChangedKeysToThePrimary() {
+        Routing routing = routing(replicaServer, 2000);
+        routing.dataSource.checkReplicas();
+        ReadYourWrites readYourWrites = new ReadYourWrites(5);
+        readYourWrites.record("user:alice@example.com");
+
+        assertThat(routing.readOnly(() -> readYourWrites.read("user:alice@example.com", routing::node)))
+                .isEqualTo("primary");
+        assertThat(routing.readOnly(() -> readYourWrites.read("user:bob@example.com", routing::node)))
+                .isEqualTo("replica");
+    }
+
+    @Test
+    void readsFailOverWhenTheReplicaGoesDown() throws IOException {
+        EmbeddedPostgres doomed = EmbeddedPostgres.builder().start();
+        name(doomed, "doomed");
+        Routing routing = routing(doomed, 2000);
+        routing.dataSource.checkReplicas();
+        assertThat(routing.readOnly(routing::node)).isEqualTo("doomed");
+
+        doomed.close();
+        routing.dataSource.checkReplicas();
+
+        assertThat(routing.readOnly(routing::node)).isEqualTo("primary");
+        assertThat(meterRegistry.get("datasource.replica.usable").gauge().value()).isZero();
+    }
+
+    @Test
+    void readsSkipAReplicaBeyondTheMaxLag() {
+        // a stand-alone server reports lag 0, so a negative bound stands in for a lagging replica
+        Routing routing = routing(replicaServer, -1);
+        routing.dataSource.checkReplicas();
+
+        assertThat(routing.readOnly(routing::node)).isEqualTo("primary");
+        assertThat(meterRegistry.get("datasource.replica.lag").gauge().value()).isZero();
+        assertThat(meterRegistry.get("datasource.replica.usable").gauge().value()).isZero();
+    }
+
+    @Test
+    void perCallCredentialsAreNotSupported() {
+        Routing routing = routing(replicaServer, 2000);
+
+        assertThatThrownBy(() -> routing.dataSource.getConnection("postgres", "postgres"))
+                .isInstanceOf(SQLFeatureNotSupportedException.class);
+    }
+
+    // ------------------- FIXTURES ------------------------
+
+    private Routing routing(EmbeddedPostgres replica, long maxLagMillis) {
+        ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(pool(primaryServer, "primary"),
+                List.of(pool(replica, "replica-1")), maxLagMillis, meterRegistry);
+        routings.add(dataSource);
+        return new Routing(dataSource);
+    }
+
+    private static HikariDataSource pool(EmbeddedPostgres server, String name) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setJdbcUrl(server.getJdbcUrl("postgres", "postgres"));
+        pool.setUsername("postgres");
+        pool.setPassword("postgres");
+        pool.setPoolName(name);
+        pool.setMaximumPoolSize(2);
+        pool.setConnectionTimeout(1000);
+        pool.setInitializationFailTimeout(-1);
+        return pool;
+    }
+
+    private static void name(EmbeddedPostgres server, String node) {
+        JdbcTemplate jdbc = new JdbcTemplate(server.getPostgresDatabase());
+        jdbc.execute("CREATE TABLE node (name TEXT NOT NULL)");
+        jdbc.update("INSERT INTO node (name) VALUES (?)", node);
+    }
+
+    private static final class Routing {
+
+        final ReplicaRoutingDataSource dataSource;
+        final JdbcTemplate jdbc;
+        final TransactionTemplate readOnly;
+        final TransactionTemplate readWrite;
+
+        Routing(ReplicaRoutingDataSource dataSource) {
+            this.dataSource = dataSource;
+            DataSource lazy = new LazyConnectionDataSourceProxy(dataSource);
+            DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(lazy);
+            this.jdbc = new JdbcTemplate(lazy);
+            this.readWrite = new TransactionTemplate(transactionManager);
+            this.readOnly = new TransactionTemplate(transactionManager);
+            this.readOnly.setReadOnly(true);
+        }
+
+        String node() {
+            return jdbc.queryForObject("SELECT name FROM node", String.class);
+        }
+
+        <T> T readOnly(Supplier<T> work) {
+            return readOnly.execute(status -> work.get());
+        }
+
+        <T> T readWrite(Supplier<T> work) {
+            return readWrite.execute(status -> work.get());
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.vehiclebooking.service;
+
+import com.vehiclebooking.dto.AvailabilityDelta;
+import com.vehiclebooking.dto.ImportReport;
+import com.vehiclebooking.model.Vehicle;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The availability stream as a listing page sees it, over HTTP. NOTIFY relay is off, so deltas
+ * are dispatched straight to this instance's subscribers.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "app.payments.gateway=fake",
+        "app.mail.fake=true",
+        "app.cache.vehicles.listen=false",
+        "app.images.root=${java.io.tmpdir}/vehiclebooking-test-images"
+})
+class AvailabilityBroadcasterTest {
+
+    private static final EmbeddedPostgres POSTGRES = start();
+    private static final String CSV_HEADER = "name,type,city,capacity,ratePerKm,available,latitude,longitude\n";
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private VehicleBulkService vehicleBulkService;
+    @Autowired
+    private AvailabilityBroadcaster availabilityBroadcaster;
+
+    private Stream<String> stream;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    @AfterEach
+    void closeStream() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    @Test
+    void bulkImportSendsOneResyncPerCityAndKeepsTheStreamOpen() throws Exception {
+        BlockingQueue<String> lines = subscribe("pune");
+
+        ImportReport report = vehicleBulkService.importVehicles(csv(
+                "Pune Van 1,van,Pune,8,20,true,,\n"
+                        + "Pune Van 2,van,Pune,8,20,true,,\n"
+                        + "Delhi Van,van,Delhi,8,20,true,,\n"), VehicleBulkService.Format.CSV, "owner@example.com");
+        assertThat(report.imported()).isEqualTo(3);
+
+        assertThat(nextEvent(lines)).isEqualTo("resync");
+        assertThat(nextData(lines)).contains("\"type\":\"RESYNC\"").contains("\"city\":\"Pune\"");
+
+        // still subscribed: a later single-vehicle change arrives as an ordinary delta
+        Vehicle vehicle = new Vehicle();
+        vehicle.setId(42L);
+        vehicle.setCity("Pune");
+        vehicle.setAvailable(false);
+        availabilityBroadcaster.publish(AvailabilityDelta.changed(vehicle));
+
+        assertThat(nextEvent(lines)).isEqualTo("delta");
+        assertThat(nextData(lines)).contains("\"type\":\"CHANGED\"").contains("\"vehicleId\":42");
+    }
+
+    @Test
+    void importsForOtherCitiesAreNotSent() throws Exception {
+        BlockingQueue<String> lines = subscribe("chennai");
+
+        vehicleBulkService.importVehicles(csv("Kochi Van,van,Kochi,8,20,true,,\n"),
+                VehicleBulkService.Format.CSV, "owner@example.com");
+        Vehicle vehicle = new Vehicle();
+        vehicle.setId(7L);
+        vehicle.setCity("Chennai");
+        availabilityBroadcaster.publish(AvailabilityDelta.changed(vehicle));
+
+        // the first event on the stream is Chennai's own
+        assertThat(nextEvent(lines)).isEqualTo("delta");
+        assertThat(nextData(lines)).contains("\"vehicleId\":7");
+    }
+
+    // ------------------- HELPERS ------------------------
+
+    private static ByteArrayInputStream csv(String rows) {
+        return new ByteArrayInputStream((CSV_HEADER + rows).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Returns once the subscription is registered; lines are read on a virtual thread
+    private BlockingQueue<String> subscribe(String city) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + port + "/api/vehicles/availability?city=" + city))
+                .header("Accept", "text/event-stream")
+                .build();
+        // headers are committed by the "subscribed" comment, after the subscriber is registered
+        HttpResponse<Stream<String>> response = HttpClient.newHttpClient()
+                .send(request, HttpResponse.BodyHandlers.ofLines());
+        assertThat(response.statusCode()).isEqualTo(200);
+        stream = response.body();
+        BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+        Thread.ofVirtual().start(() -> {
+            try {
+                stream.forEach(lines::add);
+            } catch (UncheckedIOException e) {
+                // closed by the test
+            }
+        });
+        return lines;
+    }
+
+    private static String nextEvent(BlockingQueue<String> lines) throws InterruptedException {
+        return next(lines, "event:");
+    }
+
+    private static String nextData(BlockingQueue<String> lines) throws InterruptedException {
+        return next(lines, "data:");
+    }
+
+    // Skips comments and other fields until a line with the prefix arrives
+    private static String next(BlockingQueue<String> lines, String prefix) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (true) {
+            String line = lines.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            assertThat(line).as("SSE line starting with " + prefix).isNotNull();
+            if (line.startsWith(prefix)) {
+                return line.substring(prefix.length());
+            }
+        }
+    }
+
+    private static EmbeddedPostgres start() {
+        try {
+            return EmbeddedPostgres.builder().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package com.vehiclebooking.service;
+
+import com.vehiclebooking.model.Booking;
+import com.vehiclebooking.model.Payment;
+import com.vehiclebooking.payment.FakePaymentGateway;
+import com.vehiclebooking.payment.PaymentGateway;
+import com.vehiclebooking.repository.BookingRepository;
+import com.vehiclebooking.repository.PaymentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Payment requests and settlement against a real database and the fake gateway. The
+ * application's own worker sleeps after its first round; tests drive {@code settleOnce()}.
+ */
+@SpringBootTest(properties = {
+        "app.payments.gateway=fake",
+        "app.payments.fake.failure-rate=0",
+        "app.payments.poll-interval-ms=3600000",
+        "app.mail.fake=true",
+        "app.cache.vehicles.listen=false",
+        "app.images.root=${java.io.tmpdir}/vehiclebooking-test-images"
+})
+class PaymentFlowTest {
+
+    // stopped by its own shutdown hook, after the cached application context has closed
+    private static final EmbeddedPostgres POSTGRES = start();
+    // each booking gets its own window, clear of the no-overlap constraint
+    private static final AtomicInteger SLOT = new AtomicInteger();
+
+    @Autowired
+    private PaymentService paymentService;
+    @Autowired
+    private PaymentSettlementWorker settlementWorker;
+    @Autowired
+    private FakePaymentGateway fakeGateway;
+    @Autowired
+    private PaymentRepository paymentRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private OwnerStatsService ownerStatsService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    @BeforeEach
+    void clearPayments() {
+        jdbcTemplate.update("DELETE FROM payment");
+    }
+
+    // ------------------- IDEMPOTENCY ------------------------
+
+    @Test
+    void replayWithTheSameKeyReturnsTheOriginalPayment() {
+        Booking booking = booking(500);
+
+        Payment first = paymentService.requestPayment(booking.getId(), "replay-key");
+        Payment again = paymentService.requestPayment(booking.getId(), "replay-key");
+
+        assertThat(again.getId()).isEqualTo(first.getId());
+        assertThat(again.getStatus()).isEqualTo(Payment.Status.INITIATED);
+        assertThat(paymentRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void newKeyForABookingWithALivePaymentReturnsThatPayment() {
+        Booking booking = booking(500);
+
+        Payment first = paymentService.requestPayment(booking.getId(), "first-key");
+        Payment second = paymentService.requestPayment(booking.getId(), "second-key");
+
+        assertThat(second.getId()).isEqualTo(first.getId());
+        assertThat(paymentRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void keyReusedForAnotherBookingIsRejected() {
+        paymentService.requestPayment(booking(500).getId(), "shared-key");
+        Long other = booking(700).getId();
+
+        assertThatThrownBy(() -> paymentService.requestPayment(other, "shared-key"))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY));
+    }
+
+    @Test
+    void bookingWithoutATimeWindowCannotBePaid() {
+        Booking legacy = bookingRepository.save(Booking.builder()
+                .userEmail("rider@example.com").vehicleId(1L).totalCost(500).confirmed(true).build());
+
+        assertThatThrownBy(() -> paymentService.requestPayment(legacy.getId(), "legacy-key"))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY));
+        assertThat(paymentRepository.count()).isZero();
+    }
+
+    @Test
+    void concurrentInsertsCreateExactlyOnePayment() throws Exception {
+        Booking booking = booking(500);
+        int threads = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> inserts = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int i = 0; i < threads; i++) {
+                // colliding keys as well as distinct keys for the same booking
+                String key = "race-" + (i % 4);
+                inserts.add(executor.submit(() -> {
+                    start.await();
+                    return transactionTemplate.execute(status ->
+                            paymentRepository.insertIfAbsent(booking.getId(), key, 500, Instant.now()));
+                }));
+            }
+            start.countDown();
+            int inserted = 0;
+            for (Future<Integer> insert : inserts) {
+                inserted += insert.get();
+            }
+            assertThat(inserted).isEqualTo(1);
+        }
+        assertThat(paymentRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentRequestsAllGetTheSamePayment() throws Exception {
+        Booking booking = booking(500);
+        int threads = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> requests = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int i = 0; i < threads; i++) {
+                String key = "request-" + i;
+                requests.add(executor.submit(() -> {
+                    start.await();
+                    return paymentService.requestPayment(booking.getId(), key).getId();
+                }));
+            }
+            start.countDown();
+            Long first = requests.get(0).get();
+            for (Future<Long> request : requests) {
+                assertThat(request.get()).isEqualTo(first);
+            }
+        }
+    }
+
+    // ------------------- SETTLEMENT ------------------------
+
+    @Test
+    void settlesThroughAuthorizationAndCapture() {
+        Booking booking = booking(500);
+        Payment payment = paymentService.requestPayment(booking.getId(), "settle-key");
+
+        settlementWorker.settleOnce();
+
+        Payment settled = reload(payment);
+        assertThat(settled.getStatus()).isEqualTo(Payment.Status.SETTLED);
+        assertThat(settled.getGatewayRef()).startsWith("fake-auth-");
+        assertThat(settled.getNextAttemptAt()).isNull();
+        assertThat(fakeGateway.getCaptures()).contains(settled.getGatewayRef());
+        assertThat(bookingRepository.findById(booking.getId()).orElseThrow().isPaid()).isTrue();
+    }
+
+    @Test
+    void stopsAtAuthorizedWhenCaptureFailsAndResumesFromThere() {
+        Booking booking = booking(500);
+        Payment payment = paymentService.requestPayment(booking.getId(), "step-key");
+        AtomicBoolean captureDown = new AtomicBoolean(true);
+        AtomicInteger authorizations = new AtomicInteger();
+        PaymentGateway gateway = new PaymentGateway() {
+            @Override
+            public String authorize(String idempotencyKey, double amount) {
+                authorizations.incrementAndGet();
+                return fakeGateway.authorize(idempotencyKey, amount);
+            }
+
+            @Override
+            public void capture(String authorizationRef, double amount) {
+                if (captureDown.get()) {
+                    throw new IllegalStateException("capture timed out");
+                }
+                fakeGateway.capture(authorizationRef, amount);
+            }
+        };
+        PaymentSettlementWorker worker = worker(gateway, 6, 0);
+
+        worker.settleOnce();
+        Payment authorized = reload(payment);
+        assertThat(authorized.getStatus()).isEqualTo(Payment.Status.AUTHORIZED);
+        assertThat(authorized.getAttempts()).isEqualTo(1);
+        assertThat(authorized.getLastError()).isEqualTo("capture timed out");
+
+        captureDown.set(false);
+        worker.settleOnce();
+        assertThat(reload(payment).getStatus()).isEqualTo(Payment.Status.SETTLED);
+        assertThat(authorizations).hasValue(1);
+    }
+
+    @Test
+    void authorizedPaymentIsNeverFailedWhileCaptureKeepsTimingOut() {
+        Booking booking = booking(500);
+        Payment payment = paymentService.requestPayment(booking.getId(), "stuck-capture-key");
+        String authorization = fakeGateway.authorize("stuck-capture-key", 500);
+        // past max-attempts: the timed-out captures may have charged the customer
+        jdbcTemplate.update("UPDATE payment SET status = 'AUTHORIZED', gateway_ref = ?, attempts = 9 WHERE id = ?",
+                authorization, payment.getId());
+        AtomicBoolean captureDown = new AtomicBoolean(true);
+        PaymentGateway gateway = new PaymentGateway() {
+            @Override
+            public String authorize(String idempotencyKey, double amount) {
+                throw new AssertionError("authorize must not be called");
+            }
+
+            @Override
+            public void capture(String authorizationRef, double amount) {
+                if (captureDown.get()) {
+                    throw new IllegalStateException("capture timed out");
+                }
+                fakeGateway.capture(authorizationRef, amount);
+            }
+        };
+        PaymentSettlementWorker worker = worker(gateway, 3, 0);
+
+        worker.settleOnce();
+        Payment retrying = reload(payment);
+        assertThat(retrying.getStatus()).isEqualTo(Payment.Status.AUTHORIZED);
+        assertThat(retrying.getAttempts()).isEqualTo(10);
+        assertThat(retrying.getNextAttemptAt()).isNotNull();
+
+        captureDown.set(false);
+        makeDue(payment);
+        worker.settleOnce();
+        assertThat(reload(payment).getStatus()).isEqualTo(Payment.Status.SETTLED);
+        assertThat(bookingRepository.findById(booking.getId()).orElseThrow().isPaid()).isTrue();
+    }
+
+    @Test
+    void capturedPaymentSettlesWithoutCallingTheGatewayAgain() {
+        Booking booking = booking(500);
+        Payment payment = paymentService.requestPayment(booking.getId(), "captured-key");
+        // past max-attempts on purpose: a captured payment is never given up on
+        jdbcTemplate.update("UPDATE payment SET status = 'CAPTURED', gateway_ref = 'ref-1', attempts = 9 WHERE id = ?",
+                payment.getId());
+
+        worker(unreachableGateway(), 3, 0).settleOnce();
+
+        assertThat(reload(payment).getStatus()).isEqualTo(Payment.Status.SETTLED);
+        assertThat(bookingRepository.findById(booking.getId()).orElseThrow().isPaid()).isTrue();
+    }
+
+    @Test
+    void legacyBookingWithoutATimeWindowStillSettles() {
+        Booking legacy = bookingRepository.save(Booking.builder()
+                .userEmail("rider@example.com").vehicleId(1L).totalCost(500).confirmed(true).build());
+        // paid for before requests were checked for a window
+        transactionTemplate.executeWithoutResult(status ->
+                paymentRepository.insertIfAbsent(legacy.getId(), "legacy-paid", 500, Instant.now()));
+
+        settlementWorker.settleOnce();
+
+        assertThat(paymentRepository.findByIdempotencyKey("legacy-paid").orElseThrow().getStatus())
+                .isEqualTo(Payment.Status.SETTLED);
+        assertThat(bookingRepository.findById(legacy.getId()).orElseThrow().isPaid()).isTrue();
+    }
+
+    @Test
+    void declineFailsThePaymentWithoutRetrying() {
+        Booking booking = booking(0);
+        Payment payment = paymentService.requestPayment(booking.getId(), "decline-key");
+
+        settlementWorker.settleOnce();
+
+        Payment declined = reload(payment);
+        assertThat(declined.getStatus()).isEqualTo(Payment.Status.FAILED);
+        assertThat(declined.getLastError()).isEqualTo("Amount must be positive");
+        assertThat(declined.getAttempts()).isZero();
+        assertThat(bookingRepository.findById(booking.getId()).orElseThrow().isPaid()).isFalse();
+        // a failed payment is not live: the booking can be paid again
+        assertThat(paymentService.requestPayment(booking.getId(), "decline-retry").getId())
+                .isNotEqualTo(payment.getId());
+    }
+
+    @Test
+    void transientErrorsBackOffExponentiallyThenFail() {
+        Booking booking = booking(500);
+        Payment payment = paymentService.requestPayment(booking.getId(), "flaky-key");
+        // app.payments.fake.failure-rate=1: every gateway call times out
+        PaymentSettlementWorker worker = worker(new FakePaymentGateway(1.0), 3, 10);
+
+        Instant before = Instant.now();
+        worker.settleOnce();
+        Payment first = reload(payment);
+        assertThat(first.getStatus()).isEqualTo(Payment.Status.INITIATED);
+        assertThat(first.getAttempts()).isEqualTo(1);
+        assertThat(first.getLastError()).isEqualTo("Fake gateway timeout");
+        assertThat(first.getNextAttemptAt()).isBetween(before.plusSeconds(9), before.plusSeconds(12));
+
+        makeDue(payment);
+        before = Instant.now();
+        worker.settleOnce();
+        Payment second = reload(payment);
+        assertThat(second.getAttempts()).isEqualTo(2);
+        assertThat(second.getNextAttemptAt()).isBetween(before.plusSeconds(19), before.plusSeconds(22));
+
+        makeDue(payment);
+        worker.settleOnce();
+        Payment failed = reload(payment);
+        assertThat(failed.getStatus()).isEqualTo(Payment.Status.FAILED);
+        assertThat(failed.getLastError()).startsWith("Gave up after 3 attempts");
+        assertThat(failed.getNextAttemptAt()).isNull();
+    }
+
+    @Test
+    void retryIsNotClaimedBeforeItsBackoffExpires() {
+        Booking booking = booking(500);
+        Payment payment = paymentService.requestPayment(booking.getId(), "waiting-key");
+        PaymentSettlementWorker worker = worker(new FakePaymentGateway(1.0), 3, 10);
+
+        assertThat(worker.settleOnce()).isEqualTo(1);
+        assertThat(worker.settleOnce()).isZero();
+        assertThat(reload(payment).getAttempts()).isEqualTo(1);
+    }
+
+    @Test
+    void markPaidFlipsTheBookingOnlyOnce() {
+        Booking booking = booking(500);
+
+        assertThat(transactionTemplate.execute(status -> bookingRepository.markPaid(booking.getId()))).isEqualTo(1);
+        assertThat(transactionTemplate.execute(status -> bookingRepository.markPaid(booking.getId()))).isZero();
+
+        Booking paid = bookingRepository.findById(booking.getId()).orElseThrow();
+        assertThat(paid.isPaid()).isTrue();
+        assertThat(paid.getVersion()).isEqualTo(booking.getVersion() + 1);
+    }
+
+    // ------------------- FIXTURES ------------------------
+
+    private Booking booking(double totalCost) {
+        Instant start = Instant.parse("2030-01-01T00:00:00Z").plus(Duration.ofHours(2L * SLOT.getAndIncrement()));
+        return bookingRepository.save(Booking.builder()
+                .userEmail("rider@example.com")
+                .vehicleId(1L)
+                .pickupLocation("Chennai")
+                .dropLocation("Bangalore")
+                .distanceInKm(350)
+                .totalCost(totalCost)
+                .confirmed(true)
+                .startTime(start)
+                .endTime(start.plus(Duration.ofHours(1)))
+                .build());
+    }
+
+    private PaymentSettlementWorker worker(PaymentGateway gateway, int maxAttempts, long backoffBaseSeconds) {
+        return new PaymentSettlementWorker(paymentRepository, bookingRepository, ownerStatsService, gateway,
+                transactionTemplate, new SimpleMeterRegistry(), 50, 1000, maxAttempts, backoffBaseSeconds);
+    }
+
+    private static PaymentGateway unreachableGateway() {
+        return new PaymentGateway() {
+            @Override
+            public String authorize(String idempotencyKey, double amount) {
+                throw new AssertionError("authorize must not be called");
+            }
+
+            @Override
+            public void capture(String authorizationRef, double amount) {
+                throw new AssertionError("capture must not be called");
+            }
+        };
+    }
+
+    private Payment reload(Payment payment) {
+        return paymentRepository.findById(payment.getId()).orElseThrow();
+    }
+
+    private void makeDue(Payment payment) {
+        jdbcTemplate.update("UPDATE payment SET next_attempt_at = next_attempt_at - INTERVAL '1 day' WHERE id = ?",
+                payment.getId());
+    }
+
+    private static EmbeddedPostgres start() {
+        try {
+            return EmbeddedPostgres.builder().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.vehiclebooking.util;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import java.security.Key;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtKeyRingTest {
+
+    private static final Duration DELAY = Duration.ofMinutes(10);
+    private static final Duration OVERLAP = Duration.ofHours(25);
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-03-01T12:00:00Z"));
+
+    @Test
+    void newKeyVerifiesAtOnceButOnlySignsAfterTheActivationDelay() {
+        JwtKeyRing.KeyEntry old = key("old", clock.instant().minus(Duration.ofDays(30)));
+        JwtKeyRing.KeyEntry fresh = key("new", clock.instant());
+        JwtKeyRing ring = new JwtKeyRing(List.of(old, fresh), null, DELAY, OVERLAP, clock);
+
+        assertThat(ring.signingKey().kid()).isEqualTo("old");
+        assertThat(ring.verificationKey("new")).isNotNull();
+
+        clock.advance(DELAY);
+        assertThat(ring.signingKey().kid()).isEqualTo("new");
+    }
+
+    @Test
+    void replacedKeyVerifiesForTheOverlapAfterItsSuccessorActivates() {
+        JwtKeyRing.KeyEntry old = key("old", clock.instant().minus(Duration.ofDays(30)));
+        JwtKeyRing.KeyEntry fresh = key("new", clock.instant());
+        JwtKeyRing ring = new JwtKeyRing(List.of(old, fresh), null, DELAY, OVERLAP, clock);
+
+        clock.advance(DELAY.plus(OVERLAP));
+        assertThat(ring.verificationKey("old")).isNotNull();
+
+        clock.advance(Duration.ofMillis(1));
+        assertThat(ring.verificationKey("old")).isNull();
+        assertThat(ring.verificationKey("new")).isNotNull();
+    }
+
+    @Test
+    void pinnedKeyNeverExpires() {
+        JwtKeyRing.KeyEntry pinned = key("pinned", clock.instant().minus(Duration.ofDays(30)));
+        JwtKeyRing.KeyEntry newer = key("newer", clock.instant());
+        JwtKeyRing ring = new JwtKeyRing(List.of(pinned, newer), "pinned", DELAY, OVERLAP, clock);
+
+        clock.advance(Duration.ofDays(365));
+        assertThat(ring.signingKey().kid()).isEqualTo("pinned");
+        assertThat(ring.verificationKey("pinned")).isNotNull();
+    }
+
+    @Test
+    void overlapRunsFromTheReloadThatSwitchedSigners() {
+        JwtKeyRing.KeyEntry old = key("old", clock.instant().minus(Duration.ofDays(30)));
+        JwtKeyRing ring = new JwtKeyRing(List.of(old), null, DELAY, OVERLAP, clock);
+        assertThat(ring.signingKey().kid()).isEqualTo("old");
+
+        // a key created days ago only reaches the keystore now and signs straight away
+        ring.reload(List.of(old, key("imported", clock.instant().minus(Duration.ofDays(2)))));
+        assertThat(ring.signingKey().kid()).isEqualTo("imported");
+        assertThat(ring.verificationKey("old")).isNotNull();
+
+        clock.advance(OVERLAP);
+        assertThat(ring.verificationKey("old")).isNotNull();
+
+        clock.advance(Duration.ofMillis(1));
+        assertThat(ring.verificationKey("old")).isNull();
+    }
+
+    @Test
+    void reloadKeepsTheOverlapAlreadyGranted() {
+        JwtKeyRing.KeyEntry old = key("old", clock.instant().minus(Duration.ofDays(30)));
+        JwtKeyRing.KeyEntry imported = key("imported", clock.instant().minus(Duration.ofDays(2)));
+        JwtKeyRing ring = new JwtKeyRing(List.of(old), null, DELAY, OVERLAP, clock);
+        ring.reload(List.of(old, imported));
+
+        clock.advance(Duration.ofHours(1));
+        ring.reload(List.of(old, imported));
+
+        clock.advance(OVERLAP.minusHours(1));
+        assertThat(ring.verificationKey("old")).isNotNull();
+    }
+
+    @Test
+    void unknownKidDoesNotVerify() {
+        JwtKeyRing ring = new JwtKeyRing(List.of(key("only", clock.instant())), null, DELAY, OVERLAP, clock);
+
+        assertThat(ring.verificationKey("other")).isNull();
+        assertThat(ring.verificationKey(null)).isNull();
+    }
+
+    private static JwtKeyRing.KeyEntry key(String kid, Instant created) {
+        Key key = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+        return new JwtKeyRing.KeyEntry(kid, key, key, created);
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.vehiclebooking.benchmarks;
+
+import com.vehiclebooking.model.Booking;
+import com.vehiclebooking.model.Vehicle;
+import com.vehiclebooking.service.BookingConflictException;
+import com.vehiclebooking.service.BookingService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hundreds of threads hammering one hot vehicle.
+ * {@code disjointWindows} measures how fast the per-vehicle lock admits legitimate bookings;
+ * {@code sameWindow} measures how fast losers of a double-booking race are rejected.
+ * Override the thread count with {@code -t}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(200)
+@Fork(1)
+public class BookingContentionBenchmark {
+
+    private static final Instant EPOCH = Instant.parse("2030-01-01T00:00:00Z");
+
+    private EmbeddedBackend backend;
+    private BookingService bookingService;
+    private Long hotVehicleId;
+    private final AtomicLong slot = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        backend = EmbeddedBackend.start();
+        bookingService = backend.bean(BookingService.class);
+        Vehicle hot = backend.seedVehicles(1).get(0);
+        hotVehicleId = hot.getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        System.out.println("Rejected double bookings: " + rejected.get());
+        backend.close();
+    }
+
+    @Benchmark
+    public Booking disjointWindows() {
+        Instant start = EPOCH.plus(Duration.ofHours(slot.getAndIncrement()));
+        return bookingService.createBooking(booking(start));
+    }
+
+    @Benchmark
+    public boolean sameWindow() {
+        Instant start = EPOCH.minus(Duration.ofDays(365));
+        try {
+            bookingService.createBooking(booking(start));
+            return true;
+        } catch (BookingConflictException e) {
+            rejected.incrementAndGet();
+            return false;
+        }
+    }
+
+    private Booking booking(Instant start) {
+        return Booking.builder()
+                .userEmail("rider@example.com")
+                .vehicleId(hotVehicleId)
+                .pickupLocation("Chennai")
+                .dropLocation("Vellore")
+                .startTime(start)
+                .endTime(start.plus(Duration.ofHours(1)))
+                .build();
+    }
+}
@@ -0,0 +1,60 @@
+package com.vehiclebooking.benchmarks;
+
+import com.vehiclebooking.model.Booking;
+import com.vehiclebooking.model.Vehicle;
+import com.vehiclebooking.service.BookingService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * End-to-end {@link BookingService#createBooking} (lookup, overlap check, fare, insert, outbox row)
+ * against an embedded database, spreading bookings over many vehicles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BookingServiceBenchmark {
+
+    private static final Instant EPOCH = Instant.parse("2030-01-01T00:00:00Z");
+
+    private EmbeddedBackend backend;
+    private BookingService bookingService;
+    private List<Vehicle> vehicles;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        backend = EmbeddedBackend.start();
+        bookingService = backend.bean(BookingService.class);
+        vehicles = backend.seedVehicles(100);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        backend.close();
+    }
+
+    @Benchmark
+    public Booking createBooking() {
+        long n = sequence.getAndIncrement();
+        Vehicle vehicle = vehicles.get((int) (n % vehicles.size()));
+        // each vehicle gets consecutive one-hour slots, so no request conflicts
+        Instant start = EPOCH.plus(Duration.ofHours(n / vehicles.size()));
+        return bookingService.createBooking(Booking.builder()
+                .userEmail("rider" + (n % 1000) + "@example.com")
+                .vehicleId(vehicle.getId())
+                .pickupLocation("Chennai")
+                .dropLocation("Bangalore")
+                .startTime(start)
+                .endTime(start.plus(Duration.ofHours(1)))
+                .build());
+    }
+}
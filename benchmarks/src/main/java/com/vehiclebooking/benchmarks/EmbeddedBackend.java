@@ -0,0 +1,71 @@
+package com.vehiclebooking.benchmarks;
+
+import com.vehiclebooking.VehicleBookingApplication;
+import com.vehiclebooking.model.Vehicle;
+import com.vehiclebooking.repository.VehicleRepository;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Boots the real backend against a throwaway embedded PostgreSQL for benchmarks; Flyway
+ * builds the schema exactly as in production.
+ * Everything goes in as command-line arguments so it wins over the bundled application.properties.
+ */
+final class EmbeddedBackend implements AutoCloseable {
+
+    private final EmbeddedPostgres postgres;
+    private final ConfigurableApplicationContext context;
+
+    private EmbeddedBackend(EmbeddedPostgres postgres, ConfigurableApplicationContext context) {
+        this.postgres = postgres;
+        this.context = context;
+    }
+
+    static EmbeddedBackend start() throws IOException {
+        EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+        String imageRoot = Files.createTempDirectory("bench-images").toString();
+        ConfigurableApplicationContext context = SpringApplication.run(VehicleBookingApplication.class,
+                "--server.port=0",
+                "--management.server.port=0",
+                "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=postgres",
+                "--app.mail.fake=true",
+                "--app.mail.outbox.poll-interval-ms=3600000",
+                "--app.images.root=" + imageRoot,
+                "--logging.level.root=WARN");
+        return new EmbeddedBackend(postgres, context);
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    List<Vehicle> seedVehicles(int count) {
+        List<Vehicle> vehicles = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Vehicle v = new Vehicle();
+            v.setName("Bench vehicle " + i);
+            v.setType(i % 3 == 0 ? "Bus" : i % 3 == 1 ? "Van" : "Car");
+            v.setCapacity(4 + i % 40);
+            v.setRatePerKm(20 + i % 80);
+            v.setAvailable(true);
+            v.setCity("Chennai");
+            v.setOwnerEmail("owner@example.com");
+            vehicles.add(v);
+        }
+        return bean(VehicleRepository.class).saveAll(vehicles);
+    }
+
+    @Override
+    public void close() throws IOException {
+        context.close();
+        postgres.close();
+    }
+}
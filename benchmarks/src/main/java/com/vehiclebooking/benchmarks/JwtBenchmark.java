@@ -0,0 +1,64 @@
+package com.vehiclebooking.benchmarks;
+
+import com.vehiclebooking.util.JwtKeyRing;
+import com.vehiclebooking.util.JwtUtil;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import java.security.KeyPair;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    // ES256 is what edge nodes verify with a public key only
+    @Param({"HS256", "ES256"})
+    public String algorithm;
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtKeyRing.KeyEntry key;
+        if ("ES256".equals(algorithm)) {
+            KeyPair pair = Keys.keyPairFor(SignatureAlgorithm.ES256);
+            key = new JwtKeyRing.KeyEntry("bench-es256", pair.getPrivate(), pair.getPublic(), Instant.now());
+        } else {
+            key = JwtKeyRing.ephemeral();
+        }
+        // a few retired keys so the kid lookup is not trivially a single entry
+        List<JwtKeyRing.KeyEntry> ring = List.of(key, JwtKeyRing.ephemeral(), JwtKeyRing.ephemeral());
+        jwtUtil = new JwtUtil(JwtKeyRing.of(ring, key.kid()));
+        token = jwtUtil.generateToken("rider@example.com");
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken("rider@example.com");
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtil.validateToken(token);
+    }
+
+    @Benchmark
+    public String extractEmail() {
+        return jwtUtil.extractEmail(token);
+    }
+
+    // what the JWT filter does per request: one parse for both validation and subject
+    @Benchmark
+    public String parseClaimsSubject() {
+        return jwtUtil.parseClaims(token).getSubject();
+    }
+}
@@ -0,0 +1,106 @@
+package com.vehiclebooking.benchmarks;
+
+import com.vehiclebooking.dto.NearbyVehicle;
+import com.vehiclebooking.model.Vehicle;
+import com.vehiclebooking.service.Gazetteer;
+import com.vehiclebooking.service.VehicleSearchService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nearest-vehicle queries against 100k vehicles scattered around eight metro areas, compared with a
+ * brute-force scan of the same points. Index maintenance is covered by {@link #reindexOne()}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NearbySearchBenchmark {
+
+    private static final double[][] METROS = {
+            {13.0827, 80.2707}, {12.9716, 77.5946}, {19.0760, 72.8777}, {28.6139, 77.2090},
+            {22.5726, 88.3639}, {17.3850, 78.4867}, {18.5204, 73.8567}, {23.0225, 72.5714}};
+
+    @Param({"100000"})
+    public int vehicles;
+
+    @Param({"5", "25"})
+    public double radiusKm;
+
+    private VehicleSearchService index;
+    private double[] lats;
+    private double[] lons;
+    private SplittableRandom random;
+
+    @Setup
+    public void setUp() throws IOException {
+        index = new VehicleSearchService(null, new Gazetteer());
+        lats = new double[vehicles];
+        lons = new double[vehicles];
+        random = new SplittableRandom(42);
+        for (int i = 0; i < vehicles; i++) {
+            double[] metro = METROS[i % METROS.length];
+            // spread over roughly 40 km around each centre
+            lats[i] = metro[0] + (random.nextDouble() - 0.5) * 0.7;
+            lons[i] = metro[1] + (random.nextDouble() - 0.5) * 0.7;
+            index.index(vehicle(i + 1L, lats[i], lons[i]));
+        }
+    }
+
+    @Benchmark
+    public List<NearbyVehicle> nearestTwenty() {
+        double[] metro = METROS[random.nextInt(METROS.length)];
+        return index.nearby(metro[0] + 0.05, metro[1] - 0.05, radiusKm, 20);
+    }
+
+    // what the index replaces: a distance computation for every vehicle in the fleet
+    @Benchmark
+    public int bruteForceCount() {
+        double[] metro = METROS[random.nextInt(METROS.length)];
+        double lat = metro[0] + 0.05;
+        double lon = metro[1] - 0.05;
+        int within = 0;
+        for (int i = 0; i < vehicles; i++) {
+            if (haversineKm(lat, lon, lats[i], lons[i]) <= radiusKm) {
+                within++;
+            }
+        }
+        return within;
+    }
+
+    @Benchmark
+    public void reindexOne() {
+        int i = random.nextInt(vehicles);
+        index.index(vehicle(i + 1L, lats[i] + 0.001, lons[i]));
+    }
+
+    private static Vehicle vehicle(long id, double lat, double lon) {
+        Vehicle v = new Vehicle();
+        v.setId(id);
+        v.setName("Vehicle " + id);
+        v.setType(id % 3 == 0 ? "Van" : "Car");
+        v.setCity("Bench");
+        v.setCapacity(4 + (int) (id % 10));
+        v.setRatePerKm(10 + id % 40);
+        v.setAvailable(true);
+        v.setLatitude(lat);
+        v.setLongitude(lon);
+        return v;
+    }
+
+    private static double haversineKm(double latA, double lonA, double latB, double lonB) {
+        double lat1 = Math.toRadians(latA);
+        double lat2 = Math.toRadians(latB);
+        double dLat = lat2 - lat1;
+        double dLon = Math.toRadians(lonB - lonA);
+        double h = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(lat1) * Math.cos(lat2) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * 6371.0088 * Math.asin(Math.min(1, Math.sqrt(h)));
+    }
+}
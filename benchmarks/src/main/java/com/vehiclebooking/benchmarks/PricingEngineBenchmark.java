@@ -0,0 +1,59 @@
+package com.vehiclebooking.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vehiclebooking.service.DemandCounters;
+import com.vehiclebooking.service.PricingEngine;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Raw pricing throughput. Run with {@code -prof gc}: gc.alloc.rate.norm should be ~0 B/op,
+ * since a quote request prices every candidate vehicle through these two calls.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PricingEngineBenchmark {
+
+    private static final String[] TYPES = {"Car", "Van", "Bus", "Luxury", "Tempo"};
+    private static final String[] CITIES = {"Chennai", "Bangalore", "Mumbai", "Delhi"};
+
+    private PricingEngine engine;
+    private long start;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        DemandCounters demand = new DemandCounters();
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 500; i++) {
+            demand.record(CITIES[i % CITIES.length], now);
+        }
+        engine = new PricingEngine(new ObjectMapper(), demand, new DefaultResourceLoader(),
+                "classpath:pricing-rules.json", "+05:30");
+        start = now + TimeUnit.HOURS.toMillis(3);
+    }
+
+    @Benchmark
+    public double singleTrip() {
+        int i = next++ & 0xff;
+        String type = TYPES[i % TYPES.length];
+        double multiplier = engine.multiplier(type, CITIES[i % CITIES.length], start, start);
+        return engine.fare(type, 80 + i, 42.5, multiplier, start, start);
+    }
+
+    @Benchmark
+    public double threeDayRental() {
+        int i = next++ & 0xff;
+        String type = TYPES[i % TYPES.length];
+        long end = start + TimeUnit.DAYS.toMillis(3);
+        double multiplier = engine.multiplier(type, CITIES[i % CITIES.length], start, start);
+        return engine.fare(type, 80 + i, 420, multiplier, start, end);
+    }
+}
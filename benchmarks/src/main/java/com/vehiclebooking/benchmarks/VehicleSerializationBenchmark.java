@@ -0,0 +1,78 @@
+package com.vehiclebooking.benchmarks;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vehiclebooking.model.Vehicle;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializes a listing page of vehicles. {@code withPicture=true} reproduces the old wire format
+ * where every vehicle carried its image inline as Base64.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VehicleSerializationBenchmark {
+
+    @Param({"100", "1000"})
+    public int vehicles;
+
+    @Param({"false", "true"})
+    public boolean withPicture;
+
+    // roughly a compressed 400x200 listing photo
+    @Param({"60000"})
+    public int pictureBytes;
+
+    private ObjectMapper mapper;
+    private List<Vehicle> payload;
+
+    abstract static class LegacyPictureMixIn {
+        @JsonIgnore(false)
+        String picture;
+    }
+
+    @Setup
+    public void setUp() {
+        mapper = new ObjectMapper();
+        if (withPicture) {
+            mapper.addMixIn(Vehicle.class, LegacyPictureMixIn.class);
+        }
+        Random random = new Random(42);
+        byte[] image = new byte[pictureBytes];
+        random.nextBytes(image);
+        String base64 = Base64.getEncoder().encodeToString(image);
+
+        payload = new ArrayList<>(vehicles);
+        for (int i = 0; i < vehicles; i++) {
+            Vehicle v = new Vehicle();
+            v.setId((long) i + 1);
+            v.setName("Vehicle " + i);
+            v.setType(i % 3 == 0 ? "Bus" : i % 3 == 1 ? "Van" : "Car");
+            v.setCapacity(4 + i % 40);
+            v.setRatePerKm(20 + i % 80);
+            v.setAvailable(true);
+            v.setCity(i % 2 == 0 ? "Chennai" : "Bangalore");
+            v.setOwnerEmail("owner" + (i % 50) + "@example.com");
+            v.setImageKey("0".repeat(64));
+            if (withPicture) {
+                v.setPicture(base64);
+            }
+            payload.add(v);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws Exception {
+        return mapper.writeValueAsBytes(payload);
+    }
+}
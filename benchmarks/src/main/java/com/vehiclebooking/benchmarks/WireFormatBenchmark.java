@@ -0,0 +1,104 @@
+package com.vehiclebooking.benchmarks;
+
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.vehiclebooking.dto.VehicleColumns;
+import com.vehiclebooking.dto.Views;
+import com.vehiclebooking.model.Vehicle;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * CPU per 1k-vehicle list response for each wire format GET /api/vehicles can produce, with and
+ * without gzip (what server.compression does). Bytes on the wire are printed once per trial as
+ * {@code wire-bytes format=... gzip=... bytes=...}.
+ * <ul>
+ *   <li>{@code entity}: every property, plain Jackson (the old response)</li>
+ *   <li>{@code view}: {@code Views.Public}, no ownerEmail</li>
+ *   <li>{@code view-blackbird}: the same with the Blackbird module the backend registers</li>
+ *   <li>{@code columns}: {@link VehicleColumns} as JSON</li>
+ *   <li>{@code cbor}: {@code Views.Public} as CBOR</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"1000"})
+    public int vehicles;
+
+    @Param({"entity", "view", "view-blackbird", "columns", "cbor"})
+    public String format;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    private ObjectWriter writer;
+    private Object payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<Vehicle> list = new ArrayList<>(vehicles);
+        for (int i = 0; i < vehicles; i++) {
+            Vehicle v = new Vehicle();
+            v.setId((long) i + 1);
+            v.setName("Vehicle " + i);
+            v.setType(i % 3 == 0 ? "Bus" : i % 3 == 1 ? "Van" : "Car");
+            v.setCapacity(4 + i % 40);
+            v.setRatePerKm(20 + i % 80);
+            v.setAvailable(i % 7 != 0);
+            v.setCity(i % 2 == 0 ? "Chennai" : "Bangalore");
+            v.setLatitude(13.0 + (i % 100) * 0.01);
+            v.setLongitude(80.2 + (i % 100) * 0.01);
+            v.setOwnerEmail("owner" + (i % 50) + "@example.com");
+            v.setImageKey(i % 4 == 0 ? null : "0".repeat(64));
+            list.add(v);
+        }
+        payload = list;
+
+        // Spring Boot's mapper has default view inclusion off; mirror that
+        ObjectMapper json = new ObjectMapper().disable(MapperFeature.DEFAULT_VIEW_INCLUSION);
+        ObjectMapper blackbird = new ObjectMapper().disable(MapperFeature.DEFAULT_VIEW_INCLUSION)
+                .registerModule(new BlackbirdModule());
+        ObjectMapper cbor = new ObjectMapper(new CBORFactory()).disable(MapperFeature.DEFAULT_VIEW_INCLUSION)
+                .registerModule(new BlackbirdModule());
+        writer = switch (format) {
+            case "entity" -> new ObjectMapper().writer();
+            case "view" -> json.writerWithView(Views.Public.class);
+            case "view-blackbird" -> blackbird.writerWithView(Views.Public.class);
+            case "columns" -> {
+                payload = VehicleColumns.of(list);
+                yield blackbird.writer();
+            }
+            case "cbor" -> cbor.writerWithView(Views.Public.class);
+            default -> throw new IllegalArgumentException(format);
+        };
+        System.out.printf("%nwire-bytes format=%s gzip=%s vehicles=%d bytes=%d%n",
+                format, gzip, vehicles, serialize().length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        if (!gzip) {
+            return writer.writeValueAsBytes(payload);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 * 1024);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            writer.writeValue(out, payload);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -1,4 +1,4 @@
-import { useState, useEffect } from "react";
+import { useState, useEffect, useRef } from "react";
 import { Helmet } from "react-helmet";
 import { motion } from "framer-motion";
 import { Button } from "@/components/ui/button";
@@ -26,6 +26,14 @@ const Vehicles = () => {
     type: "all",
     search: "",
   });
+  // bumped when the availability stream asks us to refetch
+  const [reloadKey, setReloadKey] = useState(0);
+  // ids currently listed, so the stream can tell a new vehicle from an update
+  const listedIds = useRef<Set<string>>(new Set());
+
+  useEffect(() => {
+    listedIds.current = new Set(vehicles.map((v) => String(v.id)));
+  }, [vehicles]);
 
   useEffect(() => {
     const fetchVehicles = async () => {
@@ -41,7 +49,9 @@ const Vehicles = () => {
         const safeData = data.map((v: any) => ({
           ...v,
           description: v.description || "Comfortable and reliable vehicle.",
-          imageUrl: v.imageUrl || "https://via.placeholder.com/400x200",
+          imageUrl: v.imageUrl
+            ? `http://localhost:8080${v.imageUrl}`
+            : "https://via.placeholder.com/400x200",
           rating: v.rating ?? 4.5,
           reviewCount: v.reviewCount ?? 10,
           pricePerKm: v.pricePerKm ?? v.ratePerKm ?? 0,
@@ -57,7 +67,39 @@ const Vehicles = () => {
     };
 
     fetchVehicles();
-  }, []);
+  }, [reloadKey]);
+
+  // Live availability: apply pushed deltas instead of polling the whole listing
+  useEffect(() => {
+    const query = filters.city !== "all" ? `?city=${encodeURIComponent(filters.city)}` : "";
+    const source = new EventSource(`http://localhost:8080/api/vehicles/availability${query}`);
+
+    source.addEventListener("delta", (event) => {
+      const delta = JSON.parse((event as MessageEvent).data);
+      if (delta.type === "CHANGED" && !listedIds.current.has(String(delta.vehicleId))) {
+        // a vehicle we have never seen: the delta lacks its details, so refetch the listing
+        setReloadKey((k) => k + 1);
+        return;
+      }
+      setVehicles((prev) => {
+        if (delta.type === "REMOVED") {
+          return prev.filter((v) => String(v.id) !== String(delta.vehicleId));
+        }
+        if (delta.type === "CHANGED") {
+          return prev.map((v) =>
+            String(v.id) === String(delta.vehicleId)
+              ? { ...v, available: delta.available, pricePerKm: delta.ratePerKm ?? v.pricePerKm }
+              : v
+          );
+        }
+        return prev;
+      });
+    });
+    // sent after a bulk import, or when we fell too far behind (the browser then reconnects on its own)
+    source.addEventListener("resync", () => setReloadKey((k) => k + 1));
+
+    return () => source.close();
+  }, [filters.city]);
 
   useEffect(() => {
     let filtered = [...vehicles];
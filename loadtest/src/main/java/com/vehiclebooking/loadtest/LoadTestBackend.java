@@ -0,0 +1,118 @@
+package com.vehiclebooking.loadtest;
+
+import com.vehiclebooking.VehicleBookingApplication;
+import com.vehiclebooking.dto.ImportReport;
+import com.vehiclebooking.service.VehicleBulkService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Boots the real backend for the Gatling simulations and seeds a vehicle catalog through the
+ * bulk import path, so the search index, caches and catalog versions are populated exactly as in
+ * production. Runs until interrupted:
+ *
+ * <pre>mvn -f loadtest/pom.xml compile exec:java [-Dloadtest.vehicles=5000] [-Dexec.args="--spring..."]</pre>
+ *
+ * <p>Uses a throwaway embedded PostgreSQL unless {@code loadtest.db.url} points at a local server
+ * (Flyway migrates it; {@code -Dloadtest.seed=false} skips seeding on later runs). Extra
+ * arguments go to Spring Boot, e.g. {@code --spring.threads.virtual.enabled=false} to compare
+ * against the platform-thread pool.
+ */
+public final class LoadTestBackend {
+
+    // City centres also known to the gazetteer, so bookings between them can be priced
+    private static final String[][] CITIES = {
+            {"Chennai", "13.0827", "80.2707"},
+            {"Bangalore", "12.9716", "77.5946"},
+            {"Mumbai", "19.0760", "72.8777"},
+            {"Delhi", "28.7041", "77.1025"},
+            {"Hyderabad", "17.3850", "78.4867"},
+            {"Pune", "18.5204", "73.8567"},
+    };
+    private static final String[] TYPES = {"Car", "Van", "Bus", "Luxury"};
+
+    private LoadTestBackend() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = Integer.getInteger("loadtest.port", 8080);
+        int vehicles = Integer.getInteger("loadtest.vehicles", 2000);
+        boolean seed = Boolean.parseBoolean(System.getProperty("loadtest.seed", "true"));
+        String dbUrl = System.getProperty("loadtest.db.url", "");
+
+        EmbeddedPostgres postgres = null;
+        List<String> bootArgs = new ArrayList<>();
+        if (dbUrl.isBlank()) {
+            postgres = EmbeddedPostgres.builder().start();
+            bootArgs.add("--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"));
+            bootArgs.add("--spring.datasource.username=postgres");
+            bootArgs.add("--spring.datasource.password=postgres");
+        } else {
+            bootArgs.add("--spring.datasource.url=" + dbUrl);
+            bootArgs.add("--spring.datasource.username=" + System.getProperty("loadtest.db.username", "postgres"));
+            bootArgs.add("--spring.datasource.password=" + System.getProperty("loadtest.db.password", "password"));
+        }
+        bootArgs.addAll(List.of(
+                "--server.port=" + port,
+                "--management.server.port=" + System.getProperty("loadtest.management.port", "0"),
+                "--app.mail.fake=true",
+                "--app.payments.gateway=fake",
+                "--app.images.root=" + Files.createTempDirectory("loadtest-images"),
+                // every virtual user arrives from the load generator's address
+                "--app.security.login.max-per-ip=1000000",
+                "--logging.level.root=WARN",
+                "--logging.level.com.vehiclebooking.loadtest=INFO"));
+        // later arguments win, so the caller can override any of the above
+        bootArgs.addAll(Arrays.asList(args));
+
+        ConfigurableApplicationContext context = SpringApplication.run(VehicleBookingApplication.class,
+                bootArgs.toArray(new String[0]));
+        EmbeddedPostgres embedded = postgres;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            context.close();
+            if (embedded != null) {
+                try {
+                    embedded.close();
+                } catch (IOException ignored) {
+                    // the process is exiting anyway
+                }
+            }
+        }));
+
+        if (seed) {
+            ImportReport report = context.getBean(VehicleBulkService.class).importVehicles(
+                    new ByteArrayInputStream(catalog(vehicles).getBytes(StandardCharsets.UTF_8)),
+                    VehicleBulkService.Format.NDJSON, "loadtest-owner@example.com");
+            System.out.printf("Seeded %d vehicles (%d rejected)%n", report.imported(), report.failed());
+        }
+        System.out.printf("Backend ready on http://localhost:%d (Ctrl+C to stop)%n", port);
+    }
+
+    // Deterministic, so runs against a fresh database are comparable
+    static String catalog(int count) {
+        Random random = new Random(42);
+        StringBuilder ndjson = new StringBuilder(count * 160);
+        for (int i = 0; i < count; i++) {
+            String[] city = CITIES[i % CITIES.length];
+            double lat = Double.parseDouble(city[1]) + (random.nextDouble() - 0.5) * 0.3;
+            double lon = Double.parseDouble(city[2]) + (random.nextDouble() - 0.5) * 0.3;
+            ndjson.append(String.format(Locale.ROOT,
+                    "{\"name\":\"Load vehicle %d\",\"type\":\"%s\",\"capacity\":%d,\"ratePerKm\":%d,"
+                            + "\"available\":true,\"city\":\"%s\",\"latitude\":%.5f,\"longitude\":%.5f}%n",
+                    i, TYPES[random.nextInt(TYPES.length)], 4 + random.nextInt(40), 10 + random.nextInt(90),
+                    city[0], lat, lon));
+        }
+        return ndjson.toString();
+    }
+}
@@ -0,0 +1,51 @@
+package com.vehiclebooking.loadtest;
+
+import io.gatling.javaapi.core.OpenInjectionStep;
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Simulation;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.*;
+
+/**
+ * Registration and login bursts, e.g. a marketing push: each visitor registers, then logs in a
+ * few times (new devices, expired sessions). Password hashing dominates, so this shows where the
+ * hashing permits start shedding load with 503s.
+ *
+ * <p>bursts (default 5) spikes of burst.users (default 300) arriving over burst.seconds
+ * (default 10), burst.gapSeconds (default 20) apart.
+ */
+public class AuthBurstSimulation extends Simulation {
+
+    private final ScenarioBuilder auth = scenario("Register and log in")
+            .feed(LoadProfile.newAccounts())
+            .exec(http("register")
+                    .post("/api/auth/register")
+                    .body(StringBody(LoadProfile.registerBody()))
+                    .check(status().is(200), jsonPath("$.token").exists()))
+            .repeat(3).on(
+                    pause(Duration.ofMillis(200), Duration.ofSeconds(1))
+                            .exec(http("login")
+                                    .post("/api/auth/login")
+                                    .body(StringBody(LoadProfile.loginBody()))
+                                    .check(status().is(200), jsonPath("$.token").exists())));
+
+    {
+        int bursts = LoadProfile.intProperty("bursts", 5);
+        List<OpenInjectionStep> steps = new ArrayList<>();
+        for (int i = 0; i < bursts; i++) {
+            if (i > 0) {
+                steps.add(nothingFor(LoadProfile.intProperty("burst.gapSeconds", 20)));
+            }
+            steps.add(stressPeakUsers(LoadProfile.intProperty("burst.users", 300))
+                    .during(LoadProfile.intProperty("burst.seconds", 10)));
+        }
+        setUp(auth.injectOpen(steps))
+                .protocols(LoadProfile.protocol())
+                .assertions(LoadProfile.gates(1500, 3000, 1, 0));
+    }
+}
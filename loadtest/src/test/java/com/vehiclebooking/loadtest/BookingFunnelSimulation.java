@@ -0,0 +1,82 @@
+package com.vehiclebooking.loadtest;
+
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Simulation;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.*;
+
+/**
+ * The revenue path: register, pick an available vehicle, book it, pay, wait for settlement and
+ * check the booking shows up in the user's list. Every user books its own 30-minute slot, and
+ * each run starts at a random day far in the future, so repeated runs against the same database
+ * do not collide with each other's bookings.
+ */
+public class BookingFunnelSimulation extends Simulation {
+
+    private static final Instant RUN_BASE = Instant.now().truncatedTo(ChronoUnit.HOURS)
+            .plus(Duration.ofDays(30 + ThreadLocalRandom.current().nextInt(3000)));
+
+    private final ScenarioBuilder funnel = scenario("Book and pay")
+            .feed(LoadProfile.newAccounts())
+            .exec(session -> {
+                var cities = LoadProfile.CITIES;
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                Instant start = RUN_BASE.plus(Duration.ofMinutes(30 * session.userId()));
+                return session
+                        .set("city", cities.get(random.nextInt(cities.size())))
+                        .set("dropCity", cities.get(random.nextInt(cities.size())))
+                        .set("startTime", start.toString())
+                        .set("endTime", start.plus(Duration.ofMinutes(30)).toString())
+                        .set("paymentKey", UUID.randomUUID().toString())
+                        .set("paymentStatus", "");
+            })
+            .exec(http("register")
+                    .post("/api/auth/register")
+                    .body(StringBody(LoadProfile.registerBody()))
+                    .check(status().is(200), jsonPath("$.token").saveAs("token")))
+            .exec(http("city listing")
+                    .get("/api/vehicles/city/#{city}")
+                    .check(status().is(200), jsonPath("$[*].id").findRandom().saveAs("vehicleId")))
+            .pause(Duration.ofSeconds(1), Duration.ofSeconds(3))
+            .exec(http("book")
+                    .post("/api/bookings")
+                    .header("Authorization", "Bearer #{token}")
+                    .body(StringBody("""
+                            {"vehicleId":#{vehicleId},"userEmail":"#{email}","pickupLocation":"#{city}",
+                             "dropLocation":"#{dropCity}","startTime":"#{startTime}","endTime":"#{endTime}"}"""))
+                    .check(status().is(200), jsonPath("$.id").saveAs("bookingId")))
+            .exec(http("pay")
+                    .post("/api/bookings/#{bookingId}/pay")
+                    .header("Authorization", "Bearer #{token}")
+                    .header("Idempotency-Key", "#{paymentKey}")
+                    .check(status().in(200, 202), jsonPath("$.status").saveAs("paymentStatus")))
+            // settlement is asynchronous; poll like the client would, for up to ~10s
+            .asLongAsDuring(session -> !"SETTLED".equals(session.getString("paymentStatus")),
+                    Duration.ofSeconds(10)).on(
+                    pause(Duration.ofMillis(500))
+                            .exec(http("payment status")
+                                    .get("/api/bookings/#{bookingId}/payment")
+                                    .header("Authorization", "Bearer #{token}")
+                                    .check(status().is(200), jsonPath("$.status").saveAs("paymentStatus"))))
+            .exec(http("payment settled")
+                    .get("/api/bookings/#{bookingId}/payment")
+                    .header("Authorization", "Bearer #{token}")
+                    .check(status().is(200), jsonPath("$.status").is("SETTLED")))
+            .exec(http("my bookings")
+                    .get("/api/bookings/user/#{email}")
+                    .header("Authorization", "Bearer #{token}")
+                    .check(status().is(200), jsonPath("$[?(@.id == #{bookingId})]").exists()));
+
+    {
+        setUp(funnel.injectOpen(LoadProfile.openLoad(20, 30, 120)))
+                .protocols(LoadProfile.protocol())
+                .assertions(LoadProfile.gates(500, 1500, 1, 0));
+    }
+}
@@ -0,0 +1,47 @@
+package com.vehiclebooking.loadtest;
+
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Simulation;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.*;
+
+/**
+ * Anonymous visitors browsing a city: the availability listing, a price-sorted search, and the
+ * listing again with the browser's If-None-Match, which should come back 304 while the catalog
+ * is unchanged.
+ */
+public class BrowseSimulation extends Simulation {
+
+    private final ScenarioBuilder browse = scenario("Anonymous browsing")
+            .feed(Stream.generate(() -> Map.<String, Object>of("city",
+                    LoadProfile.CITIES.get(ThreadLocalRandom.current().nextInt(LoadProfile.CITIES.size()))))
+                    .iterator())
+            .exec(http("city listing")
+                    .get("/api/vehicles/city/#{city}")
+                    .check(status().is(200), header("ETag").saveAs("etag")))
+            .pause(Duration.ofMillis(500), Duration.ofSeconds(2))
+            .exec(http("search by price")
+                    .get("/api/vehicles/search")
+                    .queryParam("city", "#{city}")
+                    .queryParam("sort", "price")
+                    .queryParam("limit", "20")
+                    .check(status().is(200)))
+            .pause(Duration.ofMillis(500), Duration.ofSeconds(2))
+            .exec(http("city listing revalidated")
+                    .get("/api/vehicles/city/#{city}")
+                    .header("If-None-Match", "#{etag}")
+                    // a booking elsewhere in the run may have moved the version on
+                    .check(status().in(200, 304)));
+
+    {
+        setUp(browse.injectOpen(LoadProfile.openLoad(200, 30, 120)))
+                .protocols(LoadProfile.protocol())
+                .assertions(LoadProfile.gates(100, 250, 0.5, 0));
+    }
+}
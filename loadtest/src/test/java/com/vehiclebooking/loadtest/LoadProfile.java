@@ -0,0 +1,103 @@
+package com.vehiclebooking.loadtest;
+
+import io.gatling.javaapi.core.Assertion;
+import io.gatling.javaapi.core.OpenInjectionStep;
+import io.gatling.javaapi.http.HttpProtocolBuilder;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.http;
+
+/**
+ * Settings shared by the simulations, all overridable with -D on the Gatling command line:
+ *
+ * <pre>
+ * baseUrl           http://localhost:8080
+ * users.perSec      arrival rate at full load            ramp.seconds   ramp-up before it
+ * duration.seconds  time held at full load
+ * gate.p95Ms / gate.p99Ms / gate.errorPct / gate.minRps  pass/fail gates (0 disables one)
+ * </pre>
+ *
+ * Each simulation has its own defaults; the gates apply to all requests of the run.
+ */
+final class LoadProfile {
+
+    static final String BASE_URL = System.getProperty("baseUrl", "http://localhost:8080");
+
+    // The seeded catalog (LoadTestBackend) spreads vehicles over these cities
+    static final List<String> CITIES = List.of("Chennai", "Bangalore", "Mumbai", "Delhi", "Hyderabad", "Pune");
+
+    private LoadProfile() {
+    }
+
+    static HttpProtocolBuilder protocol() {
+        return http.baseUrl(BASE_URL)
+                .acceptHeader("application/json")
+                .contentTypeHeader("application/json")
+                .acceptEncodingHeader("gzip")
+                .userAgentHeader("vehiclebooking-loadtest");
+    }
+
+    /** Linear ramp to {@code users.perSec}, then a constant arrival rate. */
+    static OpenInjectionStep[] openLoad(double defaultPerSec, int defaultRampSeconds, int defaultDurationSeconds) {
+        double perSec = doubleProperty("users.perSec", defaultPerSec);
+        return new OpenInjectionStep[]{
+                rampUsersPerSec(1).to(perSec).during(intProperty("ramp.seconds", defaultRampSeconds)),
+                constantUsersPerSec(perSec).during(intProperty("duration.seconds", defaultDurationSeconds))
+        };
+    }
+
+    static Assertion[] gates(int p95Ms, int p99Ms, double errorPct, double minRps) {
+        Stream.Builder<Assertion> gates = Stream.builder();
+        int p95 = intProperty("gate.p95Ms", p95Ms);
+        int p99 = intProperty("gate.p99Ms", p99Ms);
+        double errors = doubleProperty("gate.errorPct", errorPct);
+        double rps = doubleProperty("gate.minRps", minRps);
+        if (p95 > 0) {
+            gates.add(global().responseTime().percentile(95.0).lt(p95));
+        }
+        if (p99 > 0) {
+            gates.add(global().responseTime().percentile(99.0).lt(p99));
+        }
+        if (errors > 0) {
+            gates.add(global().failedRequests().percent().lte(errors));
+        }
+        if (rps > 0) {
+            gates.add(global().requestsPerSec().gte(rps));
+        }
+        return gates.build().toArray(Assertion[]::new);
+    }
+
+    /** Endless feeder of fresh accounts, so runs never collide with earlier registrations. */
+    static Iterator<Map<String, Object>> newAccounts() {
+        return Stream.generate(() -> Map.<String, Object>of(
+                "email", "load-" + UUID.randomUUID() + "@example.com",
+                "password", "Load-" + UUID.randomUUID().toString().substring(0, 12)))
+                .iterator();
+    }
+
+    static String registerBody() {
+        return """
+                {"firstName":"Load","lastName":"User","email":"#{email}","phone":"9000000000",
+                 "password":"#{password}","confirmPassword":"#{password}"}""";
+    }
+
+    static String loginBody() {
+        return """
+                {"email":"#{email}","password":"#{password}"}""";
+    }
+
+    static int intProperty(String name, int defaultValue) {
+        return Integer.getInteger(name, defaultValue);
+    }
+
+    static double doubleProperty(String name, double defaultValue) {
+        String value = System.getProperty(name);
+        return value == null || value.isBlank() ? defaultValue : Double.parseDouble(value);
+    }
+}